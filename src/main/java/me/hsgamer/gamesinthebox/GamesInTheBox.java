@@ -25,10 +25,20 @@ import me.hsgamer.gamesinthebox.config.converter.StringListConverter;
 import me.hsgamer.gamesinthebox.config.converter.StringObjectMapConverter;
 import me.hsgamer.gamesinthebox.config.converter.StringValueMapConverter;
 import me.hsgamer.gamesinthebox.hook.PlaceholderHook;
+import me.hsgamer.gamesinthebox.listener.PlayerNameListener;
+import me.hsgamer.gamesinthebox.manager.GameHistoryManager;
 import me.hsgamer.gamesinthebox.manager.GameManager;
 import me.hsgamer.gamesinthebox.manager.GamePickerManager;
+import me.hsgamer.gamesinthebox.manager.GlobalLeaderboardManager;
+import me.hsgamer.gamesinthebox.manager.HologramUpdateManager;
+import me.hsgamer.gamesinthebox.manager.LeaderboardManager;
+import me.hsgamer.gamesinthebox.manager.PlaceholderCacheManager;
 import me.hsgamer.gamesinthebox.manager.PlannerManager;
+import me.hsgamer.gamesinthebox.manager.PlayerChunkManager;
+import me.hsgamer.gamesinthebox.manager.PlayerStatsManager;
 import me.hsgamer.gamesinthebox.manager.PluginExpansionManager;
+import me.hsgamer.gamesinthebox.util.PlayerNameUtil;
+import me.hsgamer.gamesinthebox.util.TimeUtil;
 import me.hsgamer.gamesinthebox.util.UpdateUtil;
 import me.hsgamer.hscore.bukkit.baseplugin.BasePlugin;
 import me.hsgamer.hscore.bukkit.config.BukkitConfig;
@@ -72,20 +82,34 @@ public final class GamesInTheBox extends BasePlugin {
     private final GamePickerManager gamePickerManager = new GamePickerManager();
     private final PlannerManager plannerManager = new PlannerManager(this);
     private final PluginExpansionManager expansionManager = new PluginExpansionManager(this);
+    private final PlayerStatsManager playerStatsManager = new PlayerStatsManager(this);
+    private final GameHistoryManager gameHistoryManager = new GameHistoryManager(this);
+    private final LeaderboardManager leaderboardManager = new LeaderboardManager(this);
+    private final GlobalLeaderboardManager globalLeaderboardManager = new GlobalLeaderboardManager(this);
+    private final PlaceholderCacheManager placeholderCacheManager = new PlaceholderCacheManager(this);
+    private final PlayerChunkManager playerChunkManager = new PlayerChunkManager(this);
+    private final HologramUpdateManager hologramUpdateManager = new HologramUpdateManager(this);
 
     @Override
     public void load() {
         BlockHandlerSettings.addAll(mainConfig.getBlockUtilSettings());
+        TimeUtil.setFormats(mainConfig.getTimeFormats(), getLogger());
 
         MessageUtils.setPrefix(messageConfig::getPrefix);
     }
 
     @Override
     public void enable() {
+        playerStatsManager.init();
+        gameHistoryManager.init();
+        leaderboardManager.init();
+        playerChunkManager.init();
+        hologramUpdateManager.init();
         plannerManager.init();
         expansionManager.loadExpansions();
 
         registerCommand(new MainCommand(this));
+        Bukkit.getPluginManager().registerEvents(new PlayerNameListener(), this);
         registerCommand(new EditorCommand(this));
 
         if (Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI")) {
@@ -141,7 +165,16 @@ public final class GamesInTheBox extends BasePlugin {
     public void disable() {
         expansionManager.disableExpansions();
         plannerManager.clear();
+        gameManager.callClear();
         expansionManager.clearExpansions();
+        playerStatsManager.clear();
+        gameHistoryManager.clear();
+        leaderboardManager.clear();
+        globalLeaderboardManager.clear();
+        placeholderCacheManager.clear();
+        playerChunkManager.clear();
+        hologramUpdateManager.clear();
+        PlayerNameUtil.clear();
     }
 
     @Override
@@ -208,4 +241,74 @@ public final class GamesInTheBox extends BasePlugin {
     public PluginExpansionManager getExpansionManager() {
         return expansionManager;
     }
+
+    /**
+     * Get the player stats manager
+     *
+     * @return the player stats manager
+     */
+    @NotNull
+    public PlayerStatsManager getPlayerStatsManager() {
+        return playerStatsManager;
+    }
+
+    /**
+     * Get the game history manager
+     *
+     * @return the game history manager
+     */
+    @NotNull
+    public GameHistoryManager getGameHistoryManager() {
+        return gameHistoryManager;
+    }
+
+    /**
+     * Get the leaderboard manager
+     *
+     * @return the leaderboard manager
+     */
+    @NotNull
+    public LeaderboardManager getLeaderboardManager() {
+        return leaderboardManager;
+    }
+
+    /**
+     * Get the global leaderboard manager
+     *
+     * @return the global leaderboard manager
+     */
+    @NotNull
+    public GlobalLeaderboardManager getGlobalLeaderboardManager() {
+        return globalLeaderboardManager;
+    }
+
+    /**
+     * Get the placeholder cache manager
+     *
+     * @return the placeholder cache manager
+     */
+    @NotNull
+    public PlaceholderCacheManager getPlaceholderCacheManager() {
+        return placeholderCacheManager;
+    }
+
+    /**
+     * Get the player chunk manager
+     *
+     * @return the player chunk manager
+     */
+    @NotNull
+    public PlayerChunkManager getPlayerChunkManager() {
+        return playerChunkManager;
+    }
+
+    /**
+     * Get the hologram update manager
+     *
+     * @return the hologram update manager
+     */
+    @NotNull
+    public HologramUpdateManager getHologramUpdateManager() {
+        return hologramUpdateManager;
+    }
 }
@@ -28,6 +28,7 @@ public class Permissions {
     public static final Permission FORCE_PICK = new Permission("gamesinthebox.forcepick", PermissionDefault.OP);
     public static final Permission END = new Permission("gamesinthebox.end", PermissionDefault.OP);
     public static final Permission EXPANSION = new Permission("gamesinthebox.expansion", PermissionDefault.OP);
+    public static final Permission HISTORY = new Permission("gamesinthebox.history", PermissionDefault.OP);
     public static final Permission EDITOR = new Permission("gamesinthebox.editor", PermissionDefault.OP);
 
     private Permissions() {
@@ -0,0 +1,104 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.command.sub;
+
+import me.hsgamer.gamesinthebox.GamesInTheBox;
+import me.hsgamer.gamesinthebox.Permissions;
+import me.hsgamer.gamesinthebox.history.GameResult;
+import me.hsgamer.gamesinthebox.util.PlayerNameUtil;
+import me.hsgamer.gamesinthebox.util.TimeUtil;
+import me.hsgamer.hscore.bukkit.command.sub.SubCommand;
+import me.hsgamer.hscore.common.Pair;
+import me.hsgamer.hscore.common.Validate;
+import me.hsgamer.minigamecore.base.Arena;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static me.hsgamer.hscore.bukkit.utils.MessageUtils.sendMessage;
+
+/**
+ * The command to get the history of the games
+ */
+public final class HistoryCommand extends SubCommand {
+    private static final int DEFAULT_LIMIT = 10;
+    private final GamesInTheBox plugin;
+
+    public HistoryCommand(GamesInTheBox plugin) {
+        super("history", "Get the history of the games", "/<label> history <player|planner> <name> [arena] [limit]", Permissions.HISTORY.getName(), true);
+        this.plugin = plugin;
+    }
+
+    private static String getName(@NotNull UUID uuid) {
+        return PlayerNameUtil.getName(uuid, uuid.toString());
+    }
+
+    @Override
+    public void onSubCommand(@NotNull CommandSender sender, @NotNull String label, @NotNull String... args) {
+        List<GameResult> results;
+        if (args[0].equalsIgnoreCase("player")) {
+            int limit = args.length > 2 ? Validate.getNumber(args[2]).map(Number::intValue).orElse(DEFAULT_LIMIT) : DEFAULT_LIMIT;
+            @SuppressWarnings("deprecation")
+            OfflinePlayer player = Bukkit.getOfflinePlayer(args[1]);
+            results = plugin.getGameHistoryManager().getPlayerResults(player.getUniqueId(), limit);
+        } else {
+            String arena = args.length > 2 ? args[2] : null;
+            int limit = args.length > 3 ? Validate.getNumber(args[3]).map(Number::intValue).orElse(DEFAULT_LIMIT) : DEFAULT_LIMIT;
+            results = plugin.getGameHistoryManager().getArenaResults(args[1], arena, limit);
+        }
+
+        if (results.isEmpty()) {
+            sendMessage(sender, "&cNo game found");
+            return;
+        }
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        sendMessage(sender, "&b&lGame History:");
+        for (GameResult result : results) {
+            sendMessage(sender, "  &f- &a" + result.getPlanner() + " &7/ &a" + result.getArena() + " &7(" + result.getType() + ")");
+            sendMessage(sender, "    &eEnded: &f" + dateFormat.format(new Date(result.getEndTime())) + " &7(" + TimeUtil.formatStandardTime(result.getEndTime() - result.getStartTime()) + ")");
+            sendMessage(sender, "    &ePlayers: &f" + result.getParticipants().size());
+            if (!result.getTop().isEmpty()) {
+                Pair<UUID, Integer> winner = result.getTop().get(0);
+                sendMessage(sender, "    &eWinner: &f" + getName(winner.getKey()) + " &7(" + winner.getValue() + ")");
+            }
+        }
+    }
+
+    @Override
+    public boolean isProperUsage(@NotNull CommandSender sender, @NotNull String label, @NotNull String... args) {
+        return args.length > 1 && (args[0].equalsIgnoreCase("player") || args[0].equalsIgnoreCase("planner"));
+    }
+
+    @Override
+    public @NotNull List<String> onTabComplete(@NotNull CommandSender sender, @NotNull String label, @NotNull String... args) {
+        if (args.length == 1) {
+            return Arrays.asList("player", "planner");
+        }
+        if (args.length == 2) {
+            if (args[0].equalsIgnoreCase("player")) {
+                return Bukkit.getOnlinePlayers().stream().map(OfflinePlayer::getName).collect(Collectors.toList());
+            } else if (args[0].equalsIgnoreCase("planner")) {
+                return plugin.getPlannerManager().getAllArenas().stream().map(Arena::getName).collect(Collectors.toList());
+            }
+        }
+        return Collections.emptyList();
+    }
+}
\ No newline at end of file
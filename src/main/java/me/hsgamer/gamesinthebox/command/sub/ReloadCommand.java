@@ -19,6 +19,7 @@ import me.hsgamer.gamesinthebox.GamesInTheBox;
 import me.hsgamer.gamesinthebox.Permissions;
 import me.hsgamer.gamesinthebox.expansion.extra.Reloadable;
 import me.hsgamer.gamesinthebox.planner.feature.GlobalPlannerConfigFeature;
+import me.hsgamer.gamesinthebox.util.TimeUtil;
 import me.hsgamer.hscore.bukkit.command.sub.SubCommand;
 import me.hsgamer.hscore.bukkit.utils.MessageUtils;
 import me.hsgamer.minigamecore.base.Arena;
@@ -39,6 +40,7 @@ public final class ReloadCommand extends SubCommand {
     @Override
     public void onSubCommand(@NotNull CommandSender sender, @NotNull String label, @NotNull String... args) {
         plugin.getMainConfig().reloadConfig();
+        TimeUtil.setFormats(plugin.getMainConfig().getTimeFormats(), plugin.getLogger());
         plugin.getMessageConfig().reloadConfig();
         plugin.getGameManager().callClear();
         plugin.getExpansionManager().call(Reloadable.class, Reloadable::onReload);
@@ -46,6 +48,10 @@ public final class ReloadCommand extends SubCommand {
         plugin.getPlannerManager().getFeature(GlobalPlannerConfigFeature.class).reload();
         plugin.getPlannerManager().reloadArena();
         plugin.getPlannerManager().getAllArenas().forEach(Arena::postInit);
+        plugin.getGlobalLeaderboardManager().clear();
+        plugin.getPlaceholderCacheManager().clear();
+        plugin.getPlayerChunkManager().reload();
+        plugin.getHologramUpdateManager().reload();
         MessageUtils.sendMessage(sender, plugin.getMessageConfig().getSuccess());
     }
 }
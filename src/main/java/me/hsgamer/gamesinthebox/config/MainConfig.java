@@ -19,6 +19,7 @@ import me.hsgamer.hscore.config.annotation.Comment;
 import me.hsgamer.hscore.config.annotation.ConfigPath;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -58,6 +59,148 @@ public interface MainConfig {
         return Collections.emptyMap();
     }
 
+    /**
+     * Get the number of top positions that count as a top placement in the statistics
+     *
+     * @return the number of top positions
+     */
+    @ConfigPath({"stats", "top-placement"})
+    @Comment("The number of top positions that count as a top placement in the player statistics")
+    default int getStatsTopPlacement() {
+        return 3;
+    }
+
+    /**
+     * Get the size of a segment of the game history
+     *
+     * @return the size in bytes
+     */
+    @ConfigPath({"history", "segment-size"})
+    @Comment("The size in bytes of a segment of the game history. A new segment is started when the current one is full")
+    default long getHistorySegmentSize() {
+        return 1048576L;
+    }
+
+    /**
+     * Get the number of segments of the game history to start a compaction
+     *
+     * @return the number of segments
+     */
+    @ConfigPath({"history", "max-segments"})
+    @Comment("The number of segments of the game history before the old segments are compacted")
+    default int getHistoryMaxSegments() {
+        return 8;
+    }
+
+    /**
+     * Get the number of latest game results to keep
+     *
+     * @return the number of results
+     */
+    @ConfigPath({"history", "max-records"})
+    @Comment("The number of latest game results to keep in the history")
+    default int getHistoryMaxRecords() {
+        return 10000;
+    }
+
+    /**
+     * Get the number of top entries to cache in the leaderboards
+     *
+     * @return the number of top entries
+     */
+    @ConfigPath({"leaderboard", "top-size"})
+    @Comment("The number of top entries to cache in the hourly, daily and weekly leaderboards")
+    default int getLeaderboardTopSize() {
+        return 10;
+    }
+
+    /**
+     * Get the time to cache the results of the placeholders, by the family of the query
+     *
+     * @return the map of the family and the time in milliseconds
+     */
+    @ConfigPath({"placeholder", "cache-time"})
+    @Comment("The time in milliseconds to cache the results of the placeholders, by the end of the query (e.g. 'time_left' for 'game_time_left'). Set to -1 to keep the result until the state of the planner or its game changes, or 0 to disable the cache")
+    default Map<String, String> getPlaceholderCacheTimes() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("time_left", "50");
+        map.put("game_name", "-1");
+        map.put("game_local_name", "-1");
+        map.put("state", "-1");
+        map.put("game_state", "-1");
+        return map;
+    }
+
+    /**
+     * Get the time to cache the results of the placeholders that are not in any family
+     *
+     * @return the time in milliseconds
+     */
+    @ConfigPath({"placeholder", "default-cache-time"})
+    @Comment("The time in milliseconds to cache the results of the placeholders that are not in any family")
+    default long getPlaceholderCacheDefaultTime() {
+        return 50L;
+    }
+
+    /**
+     * Get the patterns of the time formats, by the name of the format
+     *
+     * @return the map of the name and the pattern
+     */
+    @ConfigPath("time-format")
+    @Comment("The patterns of the time formats, used by 'time_left' ('default') and 'time_left_<name>'. The fields are 'd' (days), 'H' (hours), 'm' (minutes) and 's' (seconds), text in single quotes is kept as is, and a part in [] is skipped if its fields are zero")
+    default Map<String, String> getTimeFormats() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("default", "HH:mm:ss");
+        map.put("short", "mm:ss");
+        map.put("compact", "[d'd '][H'h '][m'm ']s's'");
+        return map;
+    }
+
+    /**
+     * Get the distance in blocks that a player must be in to see the holograms
+     *
+     * @return the distance
+     */
+    @ConfigPath({"hologram", "view-distance"})
+    @Comment("The distance in blocks, rounded up to chunks, that a player must be in for the holograms to be updated. The holograms without any player nearby are updated once a player comes in range. Set to 0 to always update the holograms")
+    default int getHologramViewDistance() {
+        return 48;
+    }
+
+    /**
+     * Get the interval in ticks to check the players near the holograms
+     *
+     * @return the interval
+     */
+    @ConfigPath({"hologram", "viewer-check-interval"})
+    @Comment("The interval in ticks to collect the chunks of the players, to check the players near the holograms")
+    default long getHologramViewerCheckInterval() {
+        return 20L;
+    }
+
+    /**
+     * Get the maximum number of hologram lines to update in a tick
+     *
+     * @return the line budget
+     */
+    @ConfigPath({"hologram", "line-budget"})
+    @Comment("The maximum number of hologram lines to update in a tick, shared by all arenas. The updates over the budget are delayed to the next tick. Set to 0 to disable the limit")
+    default int getHologramLineBudget() {
+        return 200;
+    }
+
+    /**
+     * Get the number of threads to render the holograms
+     *
+     * @return the number of threads
+     */
+    @ConfigPath({"hologram", "render-threads"})
+    @Comment("The number of threads to render the hologram lines of the arenas in parallel. Set to 0 to use half of the processors")
+    default int getHologramRenderThreads() {
+        return 0;
+    }
+
     /**
      * Reload the config
      */
@@ -22,12 +22,17 @@ import me.hsgamer.unihologram.spigot.SpigotHologramProvider;
 import org.bukkit.Location;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * The {@link Feature} that handles {@link Hologram}
+ * The {@link Feature} that handles {@link Hologram}.
+ * The holograms from {@link #getHologram(String, int, Location)} are kept in a registry, so they can be reused by the name and are all cleared with the feature.
+ * A reused hologram is shown with {@link #show(Hologram)} when a game starts and hidden with {@link #hide(Hologram)} when it ends,
+ * instead of being cleared and initialized again, and is removed with {@link #removeHologram(Hologram)} when its owner is removed.
  */
 public class HologramFeature implements Feature {
     private static final SpigotHologramProvider spigotHologramProvider;
@@ -37,7 +42,7 @@ public class HologramFeature implements Feature {
     }
 
     private final String baseName;
-    private final List<Hologram<Location>> holograms = new ArrayList<>();
+    private final Map<String, Hologram<Location>> holograms = new ConcurrentHashMap<>();
 
     /**
      * Create a new instance
@@ -79,19 +84,88 @@ public class HologramFeature implements Feature {
     }
 
     /**
-     * Create a new hologram
+     * Show the hologram, by initializing it if it is not initialized
+     *
+     * @param hologram the hologram
+     */
+    public static void show(@NotNull Hologram<Location> hologram) {
+        if (!hologram.isInitialized()) {
+            hologram.init();
+        }
+    }
+
+    /**
+     * Hide the hologram, by removing its lines but keeping it initialized.
+     * The lines are set again by the next update after {@link #show(Hologram)}.
+     *
+     * @param hologram the hologram
+     */
+    public static void hide(@NotNull Hologram<Location> hologram) {
+        if (hologram.isInitialized()) {
+            hologram.setLines(Collections.emptyList());
+        }
+    }
+
+    @NotNull
+    private static String toValidName(@NotNull String name) {
+        return name.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    /**
+     * Create a new hologram.
+     * The hologram is not registered, so the caller should clear it when it is no longer used.
      *
      * @param location the location
      * @return the hologram
+     * @deprecated use {@link #getHologram(String, int, Location)} to reuse the hologram across the games,
+     * and {@link #removeHologram(Hologram)} to clear it
      */
+    @Deprecated
     @NotNull
     public Hologram<Location> createHologram(@NotNull Location location) {
-        return spigotHologramProvider.createHologram(baseName + "-" + UUID.randomUUID(), location);
+        return spigotHologramProvider.createHologram(toValidName(baseName + "-" + UUID.randomUUID()), location);
+    }
+
+    /**
+     * Get the hologram of the owner at the location, or create it if it does not exist.
+     * The same hologram is returned for the same owner, index and location, so it can be reused across the games.
+     * If the registered hologram is at a different location, it is cleared and a new one is created.
+     * The lookup and the replacement are done atomically, so two callers never get different holograms for the same name.
+     *
+     * @param owner    the owner of the hologram, like the name of the arena
+     * @param index    the index of the hologram in the owner
+     * @param location the location
+     * @return the hologram
+     */
+    @NotNull
+    public Hologram<Location> getHologram(@NotNull String owner, int index, @NotNull Location location) {
+        String name = toValidName(baseName + "-" + owner + "-" + index);
+        return holograms.compute(name, (key, hologram) -> {
+            if (hologram != null) {
+                if (Objects.equals(hologram.getLocation(), location)) {
+                    return hologram;
+                }
+                clearIfInitialized(hologram);
+            }
+            return spigotHologramProvider.createHologram(key, location);
+        });
+    }
+
+    /**
+     * Clear the hologram and remove it from the registry.
+     * Call this for the holograms from {@link #getHologram(String, int, Location)} when their owner is removed,
+     * as they are otherwise kept until the feature is cleared.
+     *
+     * @param hologram the hologram
+     */
+    public void removeHologram(@NotNull Hologram<Location> hologram) {
+        holograms.values().remove(hologram);
+        clearIfInitialized(hologram);
     }
 
     @Override
     public void clear() {
-        holograms.forEach(HologramFeature::clearIfInitialized);
+        holograms.values().forEach(HologramFeature::clearIfInitialized);
         holograms.clear();
     }
 }
@@ -15,20 +15,37 @@
 */
 package me.hsgamer.gamesinthebox.game.feature;
 
+import me.hsgamer.gamesinthebox.game.point.CoalescingPointConsumer;
+import me.hsgamer.gamesinthebox.game.point.ConcurrentPointTable;
+import me.hsgamer.gamesinthebox.game.point.PointRanking;
+import me.hsgamer.gamesinthebox.game.point.PointSnapshot;
+import me.hsgamer.gamesinthebox.game.point.PointTable;
+import me.hsgamer.gamesinthebox.util.PlayerNameUtil;
 import me.hsgamer.hscore.common.Pair;
 import me.hsgamer.minigamecore.base.Feature;
 import org.bukkit.Bukkit;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
 import java.util.stream.Stream;
 
 /**
- * The {@link Feature} that handles points of the players
+ * The {@link Feature} that handles points of the players.
+ * The players with positive points are kept in a {@link PointRanking}, so the top is always sorted.
+ * <p>
+ * The feature is thread-safe: the points are stored in a {@link ConcurrentPointTable},
+ * so the points can be applied from any thread, and {@link #getSnapshot()} gives a consistent view for readers.
  */
 public class PointFeature implements Feature {
-    private final Map<UUID, Integer> points = new IdentityHashMap<>();
+    private final ConcurrentPointTable points = new ConcurrentPointTable();
+    private final PointRanking<UUID> ranking = new PointRanking<>();
+    private final AtomicLong version = new AtomicLong();
+    private final List<PointListener> listeners = new CopyOnWriteArrayList<>();
+    private final Set<UUID> participants = ConcurrentHashMap.newKeySet();
     private final PointConsumer pointConsumer;
 
     /**
@@ -58,20 +75,124 @@ public class PointFeature implements Feature {
      * @param point the point to apply
      */
     public void applyPoint(@NotNull UUID uuid, int point) {
-        if (point > 0) {
-            points.merge(uuid, point, Integer::sum);
-            pointConsumer.onChanged(uuid, point, getPoint(uuid));
-        } else if (point < 0) {
-            int currentPoint = getPoint(uuid);
-            if (currentPoint > 0) {
-                points.put(uuid, Math.max(0, currentPoint + point));
-                pointConsumer.onChanged(uuid, Math.max(point, -currentPoint), getPoint(uuid));
-            }
-        } else {
+        participants.add(uuid);
+        if (point == 0) {
             pointConsumer.onChanged(uuid, 0, getPoint(uuid));
+            return;
+        }
+        int previousPoint = points.update(uuid, currentPoint -> getNewPoint(currentPoint, point), this::onUpdated);
+        int totalPoint = getNewPoint(previousPoint, point);
+        if (previousPoint == 0 && totalPoint != 0) {
+            PlayerNameUtil.remember(uuid);
+        }
+        if (totalPoint != previousPoint) {
+            pointConsumer.onChanged(uuid, totalPoint - previousPoint, totalPoint);
+        }
+    }
+
+    /**
+     * Apply the points to the players in one pass.
+     * The ranking is updated once for the whole batch and the {@link PointConsumer} is notified once.
+     * The points are applied in the same way as {@link #applyPoint(UUID, int)}.
+     *
+     * @param points the table of the players and the points to apply
+     */
+    public void applyPoints(@NotNull PointTable points) {
+        if (points.isEmpty()) {
+            return;
+        }
+        PointTable previousPoints = this.points.updateAll(points, PointFeature::getNewPoint, this::onUpdated);
+        PointTable appliedPoints = new PointTable(points.size());
+        PointTable totalPoints = new PointTable(points.size());
+        points.forEach((mostBits, leastBits, point) -> {
+            UUID uuid = new UUID(mostBits, leastBits);
+            participants.add(uuid);
+            int previousPoint = previousPoints.get(mostBits, leastBits);
+            int totalPoint = getNewPoint(previousPoint, point);
+            if (previousPoint == 0 && totalPoint != 0) {
+                PlayerNameUtil.remember(uuid);
+            }
+            if (point == 0 || totalPoint != previousPoint) {
+                appliedPoints.put(mostBits, leastBits, totalPoint - previousPoint);
+                totalPoints.put(mostBits, leastBits, totalPoint);
+            }
+        });
+        if (!appliedPoints.isEmpty()) {
+            pointConsumer.onBatchChanged(appliedPoints, totalPoints);
         }
     }
 
+    /**
+     * Apply the points to the players in one pass
+     *
+     * @param points the map of the players and the points to apply
+     * @see #applyPoints(PointTable)
+     */
+    public void applyPoints(@NotNull Map<UUID, Integer> points) {
+        PointTable table = new PointTable(points.size());
+        points.forEach(table::put);
+        applyPoints(table);
+    }
+
+    /**
+     * Apply the same point to the players in one pass
+     *
+     * @param uuids the uuids of the players
+     * @param point the point to apply
+     * @see #applyPoints(PointTable)
+     */
+    public void applyPoint(@NotNull Collection<@NotNull UUID> uuids, int point) {
+        PointTable table = new PointTable(uuids.size());
+        for (UUID uuid : uuids) {
+            table.add(uuid, point);
+        }
+        applyPoints(table);
+    }
+
+    private static int getNewPoint(int currentPoint, int point) {
+        return point > 0 ? currentPoint + point : Math.max(0, currentPoint + point);
+    }
+
+    private void onUpdated(@NotNull UUID uuid, int previousPoint, int newPoint) {
+        synchronized (ranking) {
+            ranking.update(uuid, newPoint);
+        }
+        for (PointListener listener : listeners) {
+            listener.onPointUpdated(uuid, previousPoint, newPoint);
+        }
+        version.incrementAndGet();
+    }
+
+    private void onUpdated(@NotNull PointTable previousPoints, @NotNull PointTable newPoints) {
+        synchronized (ranking) {
+            newPoints.forEach((mostBits, leastBits, point) -> ranking.update(new UUID(mostBits, leastBits), point));
+        }
+        for (PointListener listener : listeners) {
+            newPoints.forEach((mostBits, leastBits, point) -> listener.onPointUpdated(new UUID(mostBits, leastBits), previousPoints.get(mostBits, leastBits), point));
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Add a listener that is notified every time the point of a player is stored.
+     * The listener is called while the point of the player is locked, so it sees the changes of the same player in order.
+     * It can read the point of the player, but it should not change any point or wait for another thread that does.
+     *
+     * @param listener the listener
+     */
+    public void addListener(@NotNull PointListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove the listener
+     *
+     * @param listener the listener
+     */
+    public void removeListener(@NotNull PointListener listener) {
+        listeners.remove(listener);
+    }
+
     /**
      * Get the point of the player
      *
@@ -79,7 +200,19 @@ public class PointFeature implements Feature {
      * @return the point of the player
      */
     public int getPoint(@NotNull UUID uuid) {
-        return points.getOrDefault(uuid, 0);
+        return points.get(uuid);
+    }
+
+    /**
+     * Run the action with the point of the player, while no point of the player can be applied.
+     * The {@link PointListener} of the player is not called until the action is done.
+     * The action should not change any point.
+     *
+     * @param uuid   the uuid of the player
+     * @param action the action to run with the point of the player
+     */
+    public void withPoint(@NotNull UUID uuid, @NotNull IntConsumer action) {
+        points.read(uuid, action);
     }
 
     /**
@@ -89,25 +222,80 @@ public class PointFeature implements Feature {
      */
     @NotNull
     public Stream<Pair<UUID, Integer>> getPoints() {
-        if (points.isEmpty()) {
+        PointSnapshot snapshot = points.snapshot();
+        if (snapshot.isEmpty()) {
             return Stream.empty();
         }
-        return points.entrySet()
-                .stream()
-                .filter(entry -> entry.getValue() > 0)
-                .map(entry -> Pair.of(entry.getKey(), entry.getValue()));
+        List<Pair<UUID, Integer>> list = new ArrayList<>(snapshot.size());
+        snapshot.forEach((mostBits, leastBits, point) -> {
+            if (point > 0) {
+                list.add(Pair.of(new UUID(mostBits, leastBits), point));
+            }
+        });
+        return list.stream();
     }
 
     /**
-     * Get the top, sorted by the point
+     * Get a consistent snapshot of the points of the players
+     *
+     * @return the snapshot
+     */
+    @NotNull
+    public PointSnapshot getSnapshot() {
+        return points.snapshot();
+    }
+
+    /**
+     * Get the top, sorted by the point.
+     * The players with 0 points are not in the top, as they are not in {@link #getPoints()}.
      *
      * @return the top
      */
     @NotNull
     public Stream<Pair<UUID, Integer>> getTop() {
-        return getPoints()
-                .sorted(Comparator.<Pair<UUID, Integer>>comparingInt(Pair::getValue).reversed())
-                .map(entry -> Pair.of(entry.getKey(), entry.getValue()));
+        List<Pair<UUID, Integer>> top;
+        synchronized (ranking) {
+            top = ranking.getTop();
+        }
+        return top.stream();
+    }
+
+    /**
+     * Get the first entries of the top, sorted by the point
+     *
+     * @param limit the maximum number of entries
+     * @return the top
+     */
+    @NotNull
+    public List<Pair<UUID, Integer>> getTop(int limit) {
+        synchronized (ranking) {
+            return ranking.getTop(limit);
+        }
+    }
+
+    /**
+     * Get the entry of the top at the index
+     *
+     * @param index the index, starting from 0
+     * @return the pair of the uuid and the point, or empty if out of range
+     */
+    @NotNull
+    public Optional<Pair<UUID, Integer>> getTopEntry(int index) {
+        synchronized (ranking) {
+            return ranking.get(index);
+        }
+    }
+
+    /**
+     * Get the index of the player in the top
+     *
+     * @param uuid the uuid of the player
+     * @return the index, starting from 0, or -1 if the player is not in the top
+     */
+    public int getTopIndex(@NotNull UUID uuid) {
+        synchronized (ranking) {
+            return ranking.getRank(uuid);
+        }
     }
 
     /**
@@ -127,23 +315,68 @@ public class PointFeature implements Feature {
      */
     @NotNull
     public List<Pair<UUID, String>> getTopAsStringPair() {
-        return getTop()
-                .map(point -> Pair.of(point.getKey(), Integer.toString(point.getValue())))
-                .collect(Collectors.toList());
+        List<Pair<UUID, Integer>> top;
+        synchronized (ranking) {
+            top = ranking.getTop();
+        }
+        List<Pair<UUID, String>> list = new ArrayList<>(top.size());
+        for (Pair<UUID, Integer> pair : top) {
+            list.add(Pair.of(pair.getKey(), Integer.toString(pair.getValue())));
+        }
+        return list;
     }
 
     /**
      * Reset the point of the player if he/she is offline
      */
     public void resetPointIfNotOnline() {
-        points.replaceAll((uuid, point) -> Bukkit.getPlayer(uuid) == null ? 0 : point);
+        points.replaceAll((mostBits, leastBits, point) -> point == 0 || Bukkit.getPlayer(new UUID(mostBits, leastBits)) != null ? point : 0, this::onUpdated);
+    }
+
+    /**
+     * Pass the changes held by the point consumer, if it defers them, such as {@link CoalescingPointConsumer}.
+     * Call this before reading the points for the result of the game, so the consumer has seen every change.
+     */
+    public void flushPointChanges() {
+        if (pointConsumer instanceof CoalescingPointConsumer) {
+            ((CoalescingPointConsumer) pointConsumer).flush();
+        }
+    }
+
+    /**
+     * Get the players that have been applied a point since the points were cleared, including the players with 0 points
+     *
+     * @return the unmodifiable view of the players
+     */
+    @NotNull
+    public Set<UUID> getParticipants() {
+        return Collections.unmodifiableSet(participants);
     }
 
     /**
      * Clear all points
      */
     public void clearPoints() {
-        points.clear();
+        participants.clear();
+        points.clear(() -> {
+            synchronized (ranking) {
+                ranking.clear();
+            }
+            for (PointListener listener : listeners) {
+                listener.onPointCleared();
+            }
+            version.incrementAndGet();
+        });
+    }
+
+    /**
+     * Get the version of the points.
+     * It is increased every time a point is changed, so it can be used to check if the points are changed since the last check.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version.get();
     }
 
     /**
@@ -158,5 +391,40 @@ public class PointFeature implements Feature {
          * @param totalPoint the total point
          */
         void onChanged(@NotNull UUID uuid, int point, int totalPoint);
+
+        /**
+         * Called when the points of many players are changed at once.
+         * By default, it calls {@link #onChanged(UUID, int, int)} for each player.
+         *
+         * @param points      the table of the players and the applied points
+         * @param totalPoints the table of the players and the total points
+         */
+        default void onBatchChanged(@NotNull PointTable points, @NotNull PointTable totalPoints) {
+            points.forEach((mostBits, leastBits, point) -> onChanged(new UUID(mostBits, leastBits), point, totalPoints.get(mostBits, leastBits)));
+        }
+    }
+
+    /**
+     * The listener when the stored point of a player is changed.
+     * It is called while the point of the player is locked, so it can read the points, but it should not change them.
+     *
+     * @see #addListener(PointListener)
+     */
+    public interface PointListener {
+        /**
+         * Called when the point of a player is changed
+         *
+         * @param uuid          the uuid of the player
+         * @param previousPoint the point before the change
+         * @param newPoint      the point after the change
+         */
+        void onPointUpdated(@NotNull UUID uuid, int previousPoint, int newPoint);
+
+        /**
+         * Called when all points are cleared
+         */
+        default void onPointCleared() {
+            // EMPTY
+        }
     }
 }
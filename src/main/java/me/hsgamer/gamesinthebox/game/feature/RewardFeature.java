@@ -16,14 +16,15 @@
 package me.hsgamer.gamesinthebox.game.feature;
 
 import com.google.common.base.Preconditions;
+import me.hsgamer.gamesinthebox.util.PlayerNameUtil;
 import me.hsgamer.hscore.bukkit.scheduler.Scheduler;
 import me.hsgamer.hscore.common.Pair;
 import me.hsgamer.minigamecore.base.Feature;
 import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The {@link Feature} that rewards the players
@@ -81,12 +82,7 @@ public abstract class RewardFeature implements Feature {
      * @param uuid        the uuid of the player
      */
     public void reward(int topPosition, @NotNull UUID uuid) {
-        OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(uuid);
-        String name = offlinePlayer.getName();
-        if (name == null) return;
-        List<String> commands = new ArrayList<>(topCommands.getOrDefault(topPosition, defaultCommands));
-        commands.replaceAll(s -> s.replace("{name}", name).replace("{top}", Integer.toString(topPosition)));
-        Scheduler.providingPlugin(getClass()).sync().runTask(() -> commands.forEach(c -> Bukkit.dispatchCommand(Bukkit.getConsoleSender(), c)));
+        rewardAll(Collections.singletonList(Pair.of(topPosition, uuid)));
     }
 
     /**
@@ -95,11 +91,13 @@ public abstract class RewardFeature implements Feature {
      * @param topMap the map of the top position and the list of uuids
      */
     public void reward(@NotNull Map<Integer, List<UUID>> topMap) {
+        List<Pair<Integer, UUID>> entries = new ArrayList<>();
         topMap.forEach((topPosition, uuidList) -> {
             for (UUID uuid : uuidList) {
-                reward(topPosition, uuid);
+                entries.add(Pair.of(topPosition, uuid));
             }
         });
+        rewardAll(entries);
     }
 
     /**
@@ -108,9 +106,44 @@ public abstract class RewardFeature implements Feature {
      * @param topList the list of uuids, sorted by the top position
      */
     public void reward(@NotNull List<UUID> topList) {
+        List<Pair<Integer, UUID>> entries = new ArrayList<>(topList.size());
         for (int i = 0; i < topList.size(); i++) {
-            int top = i + 1;
-            reward(top, topList.get(i));
+            entries.add(Pair.of(i + 1, topList.get(i)));
         }
+        rewardAll(entries);
+    }
+
+    /**
+     * Reward the players.
+     * The names of all players are resolved first, without blocking, and then the commands are dispatched in one task,
+     * in the order of the entries. The players without a name are skipped.
+     *
+     * @param entries the list of pairs of the top position and the uuid
+     */
+    private void rewardAll(@NotNull List<Pair<Integer, UUID>> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<List<String>> commandsList = new ArrayList<>(entries.size());
+        List<CompletableFuture<String>> names = new ArrayList<>(entries.size());
+        for (Pair<Integer, UUID> entry : entries) {
+            commandsList.add(topCommands.getOrDefault(entry.getKey(), defaultCommands));
+            names.add(PlayerNameUtil.getNameAsync(entry.getValue()));
+        }
+        CompletableFuture.allOf(names.toArray(new CompletableFuture[0])).whenComplete((ignored, throwable) -> {
+            List<String> commands = new ArrayList<>();
+            for (int i = 0; i < entries.size(); i++) {
+                CompletableFuture<String> future = names.get(i);
+                String name = future.isCompletedExceptionally() ? null : future.join();
+                if (name == null) continue;
+                String topPosition = Integer.toString(entries.get(i).getKey());
+                for (String command : commandsList.get(i)) {
+                    commands.add(command.replace("{name}", name).replace("{top}", topPosition));
+                }
+            }
+            if (!commands.isEmpty()) {
+                Scheduler.providingPlugin(getClass()).sync().runTask(() -> commands.forEach(c -> Bukkit.dispatchCommand(Bukkit.getConsoleSender(), c)));
+            }
+        });
     }
 }
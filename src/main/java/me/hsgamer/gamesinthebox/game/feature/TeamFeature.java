@@ -0,0 +1,222 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.game.feature;
+
+import me.hsgamer.gamesinthebox.game.point.PointRanking;
+import me.hsgamer.hscore.common.Pair;
+import me.hsgamer.minigamecore.base.Feature;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link Feature} that groups the players into teams.
+ * The total point of each team is updated every time the point of a member is changed in the {@link PointFeature},
+ * and the teams are kept in a {@link PointRanking}, so the team top is always sorted without summing the points of the members.
+ * <p>
+ * The teams are not assigned by the plugin. The games that have teams should call {@link #setTeam(UUID, String)},
+ * and can reward the teams with {@link #getTeamTopMembers()}.
+ * The point of a member is read and moved under the lock of the point of the member,
+ * so a point applied at the same time is counted exactly once.
+ */
+public class TeamFeature implements Feature, PointFeature.PointListener {
+    private final PointFeature pointFeature;
+    private final Map<UUID, String> teams = new ConcurrentHashMap<>();
+    private final PointRanking<String> ranking = new PointRanking<>();
+
+    /**
+     * Create a new instance
+     *
+     * @param pointFeature the point feature of the arena
+     */
+    public TeamFeature(@NotNull PointFeature pointFeature) {
+        this.pointFeature = pointFeature;
+    }
+
+    @Override
+    public void init() {
+        pointFeature.addListener(this);
+    }
+
+    @Override
+    public void clear() {
+        pointFeature.removeListener(this);
+        clearTeams();
+    }
+
+    @Override
+    public void onPointUpdated(@NotNull UUID uuid, int previousPoint, int newPoint) {
+        synchronized (ranking) {
+            String team = teams.get(uuid);
+            if (team != null) {
+                ranking.update(team, ranking.getPoint(team) + newPoint - previousPoint);
+            }
+        }
+    }
+
+    @Override
+    public void onPointCleared() {
+        synchronized (ranking) {
+            ranking.clear();
+        }
+    }
+
+    /**
+     * Set the team of the player.
+     * The current point of the player is moved from the old team to the new team.
+     *
+     * @param uuid the uuid of the player
+     * @param team the name of the team
+     */
+    public void setTeam(@NotNull UUID uuid, @NotNull String team) {
+        pointFeature.withPoint(uuid, point -> {
+            synchronized (ranking) {
+                String oldTeam = teams.put(uuid, team);
+                if (oldTeam != null) {
+                    ranking.update(oldTeam, ranking.getPoint(oldTeam) - point);
+                }
+                ranking.update(team, ranking.getPoint(team) + point);
+            }
+        });
+    }
+
+    /**
+     * Remove the player from the team.
+     * The current point of the player is removed from the team.
+     *
+     * @param uuid the uuid of the player
+     */
+    public void removeTeam(@NotNull UUID uuid) {
+        pointFeature.withPoint(uuid, point -> {
+            synchronized (ranking) {
+                String oldTeam = teams.remove(uuid);
+                if (oldTeam != null) {
+                    ranking.update(oldTeam, ranking.getPoint(oldTeam) - point);
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the team of the player
+     *
+     * @param uuid the uuid of the player
+     * @return the name of the team, or empty if the player is not in a team
+     */
+    @NotNull
+    public Optional<String> getTeam(@NotNull UUID uuid) {
+        return Optional.ofNullable(teams.get(uuid));
+    }
+
+    /**
+     * Get the members of the team
+     *
+     * @param team the name of the team
+     * @return the uuids of the members
+     */
+    @NotNull
+    public List<UUID> getMembers(@NotNull String team) {
+        List<UUID> list = new ArrayList<>();
+        teams.forEach((uuid, memberTeam) -> {
+            if (memberTeam.equals(team)) {
+                list.add(uuid);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * Get the total point of the team
+     *
+     * @param team the name of the team
+     * @return the total point
+     */
+    public int getTeamPoint(@NotNull String team) {
+        synchronized (ranking) {
+            return ranking.getPoint(team);
+        }
+    }
+
+    /**
+     * Get the index of the team in the team top
+     *
+     * @param team the name of the team
+     * @return the index, starting from 0, or -1 if the team has no point
+     */
+    public int getTeamIndex(@NotNull String team) {
+        synchronized (ranking) {
+            return ranking.getRank(team);
+        }
+    }
+
+    /**
+     * Get the team top, sorted by the total point
+     *
+     * @return the list of pairs of the team and the total point
+     */
+    @NotNull
+    public List<Pair<String, Integer>> getTeamTop() {
+        synchronized (ranking) {
+            return ranking.getTop();
+        }
+    }
+
+    /**
+     * Get the entry of the team top at the index
+     *
+     * @param index the index, starting from 0
+     * @return the pair of the team and the total point, or empty if out of range
+     */
+    @NotNull
+    public Optional<Pair<String, Integer>> getTeamTop(int index) {
+        synchronized (ranking) {
+            return ranking.get(index);
+        }
+    }
+
+    /**
+     * Get the members of the teams by the team top, to be used in {@link RewardFeature#reward(Map)}
+     *
+     * @return the map of the top position, starting from 1, and the members of the team at that position
+     */
+    @NotNull
+    public Map<Integer, List<UUID>> getTeamTopMembers() {
+        List<Pair<String, Integer>> top = getTeamTop();
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < top.size(); i++) {
+            positions.put(top.get(i).getKey(), i + 1);
+        }
+        Map<Integer, List<UUID>> map = new TreeMap<>();
+        teams.forEach((uuid, team) -> {
+            Integer position = positions.get(team);
+            if (position != null) {
+                map.computeIfAbsent(position, key -> new ArrayList<>()).add(uuid);
+            }
+        });
+        return map;
+    }
+
+    /**
+     * Remove all teams
+     */
+    public void clearTeams() {
+        synchronized (ranking) {
+            teams.clear();
+            ranking.clear();
+        }
+    }
+}
\ No newline at end of file
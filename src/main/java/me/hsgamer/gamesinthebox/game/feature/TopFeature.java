@@ -19,19 +19,26 @@ import me.hsgamer.hscore.common.Pair;
 import me.hsgamer.minigamecore.base.Feature;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
 
 /**
- * The {@link Feature} that handles the top / leaderboard
+ * The {@link Feature} that handles the top / leaderboard.
+ * The index of each {@link UUID} is computed once when the top is set, so looking up the position of a player doesn't scan the top.
+ * The top, its indexes and its version are published together as one immutable {@link Top}, so a reader never pairs a new top with old indexes.
  */
 public class TopFeature implements Feature {
-    private final AtomicReference<List<Pair<UUID, String>>> top = new AtomicReference<>(Collections.emptyList());
-    private final AtomicReference<List<UUID>> topUUIDs = new AtomicReference<>(Collections.emptyList());
+    private final AtomicReference<Top> current = new AtomicReference<>(Top.EMPTY);
+
+    /**
+     * Get the current top with its indexes and version
+     *
+     * @return the current top
+     */
+    @NotNull
+    public Top getCurrent() {
+        return current.get();
+    }
 
     /**
      * Get the current top
@@ -40,7 +47,7 @@ public class TopFeature implements Feature {
      */
     @NotNull
     public List<Pair<UUID, String>> getTop() {
-        return top.get();
+        return current.get().getEntries();
     }
 
     /**
@@ -49,8 +56,17 @@ public class TopFeature implements Feature {
      * @param top the top
      */
     public void setTop(@NotNull List<Pair<UUID, String>> top) {
-        this.top.lazySet(top);
-        this.topUUIDs.lazySet(top.stream().map(Pair::getKey).collect(Collectors.toList()));
+        current.updateAndGet(previous -> new Top(top, previous.version + 1));
+    }
+
+    /**
+     * Get the version of the top.
+     * It is increased every time the top is set.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return current.get().getVersion();
     }
 
     /**
@@ -60,7 +76,7 @@ public class TopFeature implements Feature {
      * @return the index or -1 if not found
      */
     public int getTopIndex(@NotNull UUID uuid) {
-        return topUUIDs.get().indexOf(uuid);
+        return current.get().getIndex(uuid);
     }
 
     /**
@@ -71,11 +87,70 @@ public class TopFeature implements Feature {
      */
     @NotNull
     public Optional<Pair<UUID, String>> getTop(int index) {
-        List<Pair<UUID, String>> getTopSnapshot = getTop();
-        if (index < 0 || index >= getTopSnapshot.size()) {
-            return Optional.empty();
-        } else {
-            return Optional.of(getTopSnapshot.get(index));
+        return current.get().get(index);
+    }
+
+    /**
+     * An immutable top with the index of each {@link UUID} and the version it was set at
+     */
+    public static final class Top {
+        /**
+         * The empty top
+         */
+        public static final Top EMPTY = new Top(Collections.emptyList(), 0);
+
+        private final List<Pair<UUID, String>> entries;
+        private final Map<UUID, Integer> indexes;
+        private final long version;
+
+        private Top(@NotNull List<Pair<UUID, String>> entries, long version) {
+            this.entries = entries;
+            this.version = version;
+            Map<UUID, Integer> map = new HashMap<>(entries.size() * 2);
+            for (int i = 0; i < entries.size(); i++) {
+                map.putIfAbsent(entries.get(i).getKey(), i);
+            }
+            this.indexes = map;
+        }
+
+        /**
+         * Get the entries of the top
+         *
+         * @return the entries
+         */
+        @NotNull
+        public List<Pair<UUID, String>> getEntries() {
+            return entries;
+        }
+
+        /**
+         * Get the version of the top
+         *
+         * @return the version
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Get the entry at the index
+         *
+         * @param index the index, starting from 0
+         * @return the pair of the uuid and the value, or empty if out of range
+         */
+        @NotNull
+        public Optional<Pair<UUID, String>> get(int index) {
+            return index < 0 || index >= entries.size() ? Optional.empty() : Optional.of(entries.get(index));
+        }
+
+        /**
+         * Get the index of the UUID in the top
+         *
+         * @param uuid the UUID
+         * @return the index or -1 if not found
+         */
+        public int getIndex(@NotNull UUID uuid) {
+            return indexes.getOrDefault(uuid, -1);
         }
     }
 }
@@ -0,0 +1,120 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.game.point;
+
+import me.hsgamer.gamesinthebox.game.feature.PointFeature;
+import me.hsgamer.hscore.bukkit.scheduler.Scheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The {@link PointFeature.PointConsumer} that merges the changes of the same player in a tick.
+ * The changes are collected and passed to the delegate in the next tick of the player, so the delegate is called once per player per tick
+ * with the net applied point and the latest total point.
+ * The changes of an online player are passed on the scheduler of the player, so the delegate can message the player on Folia.
+ */
+public class CoalescingPointConsumer implements PointFeature.PointConsumer {
+    private final Plugin plugin;
+    private final PointFeature.PointConsumer delegate;
+    private final Map<UUID, int[]> pendingPoints = new HashMap<>();
+
+    /**
+     * Create a new consumer
+     *
+     * @param plugin   the plugin to schedule the flush task
+     * @param delegate the consumer to receive the merged changes
+     */
+    public CoalescingPointConsumer(@NotNull Plugin plugin, @NotNull PointFeature.PointConsumer delegate) {
+        this.plugin = plugin;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onChanged(@NotNull UUID uuid, int point, int totalPoint) {
+        if (add(uuid, point, totalPoint)) {
+            schedule(uuid);
+        }
+    }
+
+    @Override
+    public void onBatchChanged(@NotNull PointTable points, @NotNull PointTable totalPoints) {
+        points.forEach((mostBits, leastBits, point) -> onChanged(new UUID(mostBits, leastBits), point, totalPoints.get(mostBits, leastBits)));
+    }
+
+    private boolean add(UUID uuid, int point, int totalPoint) {
+        synchronized (pendingPoints) {
+            int[] pending = pendingPoints.get(uuid);
+            if (pending == null) {
+                pendingPoints.put(uuid, new int[]{point, totalPoint});
+                return true;
+            }
+            pending[0] += point;
+            pending[1] = totalPoint;
+            return false;
+        }
+    }
+
+    private void schedule(UUID uuid) {
+        Player player = Bukkit.getPlayer(uuid);
+        if (player == null) {
+            Scheduler.plugin(plugin).sync().runTask(() -> flush(uuid));
+        } else {
+            Scheduler.plugin(plugin).sync().runEntityTask(player, () -> flush(uuid), () -> flush(uuid));
+        }
+    }
+
+    /**
+     * Pass the pending changes of the player to the delegate
+     *
+     * @param uuid the uuid of the player
+     */
+    public void flush(@NotNull UUID uuid) {
+        int[] pending;
+        synchronized (pendingPoints) {
+            pending = pendingPoints.remove(uuid);
+        }
+        if (pending != null) {
+            delegate.onChanged(uuid, pending[0], pending[1]);
+        }
+    }
+
+    /**
+     * Pass the pending changes of all players to the delegate
+     */
+    public void flush() {
+        PointTable points;
+        PointTable totalPoints;
+        synchronized (pendingPoints) {
+            if (pendingPoints.isEmpty()) {
+                return;
+            }
+            points = new PointTable(pendingPoints.size());
+            totalPoints = new PointTable(pendingPoints.size());
+            pendingPoints.forEach((uuid, pending) -> {
+                points.put(uuid, pending[0]);
+                totalPoints.put(uuid, pending[1]);
+            });
+            pendingPoints.clear();
+        }
+        delegate.onBatchChanged(points, totalPoints);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,326 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.game.point;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * The thread-safe version of {@link PointTable}.
+ * The entries are split into stripes by the hash of the {@link UUID}, and each stripe has its own lock,
+ * so the players in different stripes can be updated at the same time from different threads.
+ * The locks are reentrant, so a listener that is called while the stripe is locked can still read the point of the player.
+ */
+public final class ConcurrentPointTable {
+    private final PointTable[] tables;
+    private final ReentrantReadWriteLock[] locks;
+    private final int mask;
+
+    /**
+     * Create a new table
+     *
+     * @param stripes the number of stripes, rounded up to a power of two
+     */
+    public ConcurrentPointTable(int stripes) {
+        int count = 1;
+        while (count < stripes && count < 256) {
+            count <<= 1;
+        }
+        tables = new PointTable[count];
+        locks = new ReentrantReadWriteLock[count];
+        for (int i = 0; i < count; i++) {
+            tables[i] = new PointTable();
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        mask = count - 1;
+    }
+
+    /**
+     * Create a new table with the number of stripes based on the number of processors
+     */
+    public ConcurrentPointTable() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    private int stripeOf(long mostBits, long leastBits) {
+        return (PointTable.hash(mostBits, leastBits) >>> 24) & mask;
+    }
+
+    /**
+     * Get the point of the player
+     *
+     * @param uuid the uuid of the player
+     * @return the point, or 0 if the player is not in the table
+     */
+    public int get(@NotNull UUID uuid) {
+        long mostBits = uuid.getMostSignificantBits();
+        long leastBits = uuid.getLeastSignificantBits();
+        int stripe = stripeOf(mostBits, leastBits);
+        ReentrantReadWriteLock.ReadLock lock = locks[stripe].readLock();
+        lock.lock();
+        try {
+            return tables[stripe].get(mostBits, leastBits);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run the action with the point of the player while holding the read lock of the stripe of the player,
+     * so the point is not updated until the action is done.
+     * The action should not update the points, as the read lock cannot be upgraded.
+     *
+     * @param uuid   the uuid of the player
+     * @param action the action to run with the point, or 0 if the player is not in the table
+     */
+    public void read(@NotNull UUID uuid, @NotNull IntConsumer action) {
+        long mostBits = uuid.getMostSignificantBits();
+        long leastBits = uuid.getLeastSignificantBits();
+        int stripe = stripeOf(mostBits, leastBits);
+        ReentrantReadWriteLock.ReadLock lock = locks[stripe].readLock();
+        lock.lock();
+        try {
+            action.accept(tables[stripe].get(mostBits, leastBits));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Update the point of the player.
+     * The function and the listener are called while holding the lock of the stripe of the player,
+     * so the updates of the same player are seen by the listener in order.
+     *
+     * @param uuid     the uuid of the player
+     * @param function the function to get the new point from the current point
+     * @param listener the listener to call if the point is changed
+     * @return the point before the update
+     */
+    public int update(@NotNull UUID uuid, @NotNull UpdateFunction function, @NotNull UpdateListener listener) {
+        long mostBits = uuid.getMostSignificantBits();
+        long leastBits = uuid.getLeastSignificantBits();
+        int stripe = stripeOf(mostBits, leastBits);
+        ReentrantReadWriteLock.WriteLock lock = locks[stripe].writeLock();
+        lock.lock();
+        try {
+            PointTable table = tables[stripe];
+            int previousPoint = table.get(mostBits, leastBits);
+            int newPoint = function.apply(previousPoint);
+            if (newPoint != previousPoint) {
+                table.put(mostBits, leastBits, newPoint);
+                listener.onUpdated(uuid, previousPoint, newPoint);
+            }
+            return previousPoint;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Update the points of many players in one pass.
+     * The stripes of the players are locked together, in order, so the listener sees all changes of the batch at once.
+     *
+     * @param values   the table of the players and the values to pass to the function
+     * @param function the function to get the new point from the current point and the value
+     * @param listener the listener to call once with the changed entries
+     * @return the table of the points before the update, for all players in the values
+     */
+    @NotNull
+    public PointTable updateAll(@NotNull PointTable values, @NotNull MergeFunction function, @NotNull BatchListener listener) {
+        PointTable previousPoints = new PointTable(values.size());
+        if (values.isEmpty()) {
+            return previousPoints;
+        }
+        boolean[] involved = new boolean[tables.length];
+        values.forEach((mostBits, leastBits, value) -> involved[stripeOf(mostBits, leastBits)] = true);
+        for (int i = 0; i < locks.length; i++) {
+            if (involved[i]) {
+                locks[i].writeLock().lock();
+            }
+        }
+        try {
+            PointTable changedPreviousPoints = new PointTable(values.size());
+            PointTable changedNewPoints = new PointTable(values.size());
+            values.forEach((mostBits, leastBits, value) -> {
+                PointTable table = tables[stripeOf(mostBits, leastBits)];
+                int previousPoint = table.get(mostBits, leastBits);
+                int newPoint = function.apply(previousPoint, value);
+                previousPoints.put(mostBits, leastBits, previousPoint);
+                if (newPoint != previousPoint) {
+                    table.put(mostBits, leastBits, newPoint);
+                    changedPreviousPoints.put(mostBits, leastBits, previousPoint);
+                    changedNewPoints.put(mostBits, leastBits, newPoint);
+                }
+            });
+            if (!changedNewPoints.isEmpty()) {
+                listener.onUpdated(changedPreviousPoints, changedNewPoints);
+            }
+            return previousPoints;
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                if (involved[i]) {
+                    locks[i].writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Replace the point of all entries.
+     * The stripes are locked one by one.
+     *
+     * @param function the function to get the new point
+     * @param listener the listener to call if the point of a player is changed
+     */
+    public void replaceAll(@NotNull PointTable.EntryFunction function, @NotNull UpdateListener listener) {
+        for (int i = 0; i < tables.length; i++) {
+            locks[i].writeLock().lock();
+            try {
+                tables[i].replaceAll((mostBits, leastBits, point) -> {
+                    int newPoint = function.apply(mostBits, leastBits, point);
+                    if (newPoint != point) {
+                        listener.onUpdated(new UUID(mostBits, leastBits), point, newPoint);
+                    }
+                    return newPoint;
+                });
+            } finally {
+                locks[i].writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Remove all entries.
+     * All stripes are locked during the operation.
+     *
+     * @param action the action to run while all stripes are locked
+     */
+    public void clear(@NotNull Runnable action) {
+        for (ReentrantReadWriteLock lock : locks) {
+            lock.writeLock().lock();
+        }
+        try {
+            for (PointTable table : tables) {
+                table.clear();
+            }
+            action.run();
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        clear(() -> {
+        });
+    }
+
+    /**
+     * Create a consistent snapshot of the table.
+     * All stripes are locked for reading while copying, so no update is seen partially.
+     *
+     * @return the snapshot
+     */
+    @NotNull
+    public PointSnapshot snapshot() {
+        for (ReentrantReadWriteLock lock : locks) {
+            lock.readLock().lock();
+        }
+        try {
+            int size = 0;
+            for (PointTable table : tables) {
+                size += table.size();
+            }
+            if (size == 0) {
+                return PointSnapshot.EMPTY;
+            }
+            PointTable copy = new PointTable(size);
+            for (PointTable table : tables) {
+                table.forEach(copy::put);
+            }
+            return new PointSnapshot(copy);
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * The function to get the new point from the current point
+     */
+    @FunctionalInterface
+    public interface UpdateFunction {
+        /**
+         * Apply the function
+         *
+         * @param currentPoint the current point
+         * @return the new point
+         */
+        int apply(int currentPoint);
+    }
+
+    /**
+     * The function to get the new point from the current point and a value
+     */
+    @FunctionalInterface
+    public interface MergeFunction {
+        /**
+         * Apply the function
+         *
+         * @param currentPoint the current point
+         * @param value        the value
+         * @return the new point
+         */
+        int apply(int currentPoint, int value);
+    }
+
+    /**
+     * The listener when the point of a player is changed
+     */
+    @FunctionalInterface
+    public interface UpdateListener {
+        /**
+         * Called when the point of a player is changed
+         *
+         * @param uuid          the uuid of the player
+         * @param previousPoint the point before the change
+         * @param newPoint      the point after the change
+         */
+        void onUpdated(@NotNull UUID uuid, int previousPoint, int newPoint);
+    }
+
+    /**
+     * The listener when the points of many players are changed
+     */
+    @FunctionalInterface
+    public interface BatchListener {
+        /**
+         * Called when the points of the players are changed
+         *
+         * @param previousPoints the points before the change
+         * @param newPoints      the points after the change
+         */
+        void onUpdated(@NotNull PointTable previousPoints, @NotNull PointTable newPoints);
+    }
+}
\ No newline at end of file
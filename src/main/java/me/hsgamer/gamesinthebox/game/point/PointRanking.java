@@ -0,0 +1,322 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.game.point;
+
+import me.hsgamer.hscore.common.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * A ranking of the points that stays ordered while the points are changed.
+ * It is an order-statistic treap, so updating a point and getting the rank of a key take {@code O(log n)},
+ * while reading the first {@code k} entries takes {@code O(k)}.
+ * <p>
+ * The entries are sorted by the point in descending order.
+ * Entries with the same point are sorted by the time they reached that point, the earliest first.
+ * Only the entries with a positive point are ranked, which matches the players that {@link me.hsgamer.gamesinthebox.game.feature.PointFeature#getPoints()} returns.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <K> the type of the key
+ */
+public final class PointRanking<K> {
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+    private Node<K> root;
+    private long sequence = 0;
+    private int seed = 0x2545F491;
+
+    private static <K> int size(@Nullable Node<K> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static <K> boolean isBefore(@NotNull Node<K> node, int point, long sequence) {
+        return node.point > point || (node.point == point && node.sequence < sequence);
+    }
+
+    private static <K> Node<K> merge(@Nullable Node<K> left, @Nullable Node<K> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        } else {
+            right.left = merge(left, right.left);
+            right.update();
+            return right;
+        }
+    }
+
+    private static <K> Node<K> removeFirst(@NotNull Node<K> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeFirst(node.left);
+        node.update();
+        return node;
+    }
+
+    /**
+     * Split the tree into the nodes before the position and the nodes at or after the position
+     */
+    @SuppressWarnings("unchecked")
+    private static <K> Node<K>[] split(@Nullable Node<K> node, int point, long sequence) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (isBefore(node, point, sequence)) {
+            Node<K>[] pair = split(node.right, point, sequence);
+            node.right = pair[0];
+            node.update();
+            pair[0] = node;
+            return pair;
+        } else {
+            Node<K>[] pair = split(node.left, point, sequence);
+            node.left = pair[1];
+            node.update();
+            pair[1] = node;
+            return pair;
+        }
+    }
+
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private void detach(@NotNull Node<K> node) {
+        Node<K>[] pair = split(root, node.point, node.sequence);
+        root = merge(pair[0], removeFirst(pair[1]));
+    }
+
+    private void attach(@NotNull Node<K> node) {
+        node.left = null;
+        node.right = null;
+        node.size = 1;
+        Node<K>[] pair = split(root, node.point, node.sequence);
+        root = merge(merge(pair[0], node), pair[1]);
+    }
+
+    /**
+     * Set the point of the key.
+     * The key will be removed from the ranking if the point is not positive.
+     *
+     * @param key   the key
+     * @param point the point
+     */
+    public void update(@NotNull K key, int point) {
+        Node<K> node = nodes.get(key);
+        if (node != null) {
+            if (node.point == point) {
+                return;
+            }
+            detach(node);
+            if (point <= 0) {
+                nodes.remove(key);
+                return;
+            }
+        } else {
+            if (point <= 0) {
+                return;
+            }
+            node = new Node<>(key, nextPriority());
+            nodes.put(key, node);
+        }
+        node.point = point;
+        node.sequence = sequence++;
+        attach(node);
+    }
+
+    /**
+     * Remove the key from the ranking
+     *
+     * @param key the key
+     */
+    public void remove(@NotNull K key) {
+        Node<K> node = nodes.remove(key);
+        if (node != null) {
+            detach(node);
+        }
+    }
+
+    /**
+     * Get the point of the key
+     *
+     * @param key the key
+     * @return the point, or 0 if the key is not ranked
+     */
+    public int getPoint(@NotNull K key) {
+        Node<K> node = nodes.get(key);
+        return node == null ? 0 : node.point;
+    }
+
+    /**
+     * Get the rank of the key
+     *
+     * @param key the key
+     * @return the index of the key, starting from 0, or -1 if the key is not ranked
+     */
+    public int getRank(@NotNull K key) {
+        Node<K> target = nodes.get(key);
+        if (target == null) {
+            return -1;
+        }
+        int rank = 0;
+        Node<K> node = root;
+        while (node != null && node != target) {
+            if (isBefore(node, target.point, target.sequence)) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return rank + size(target.left);
+    }
+
+    @Nullable
+    private Node<K> getNode(int index) {
+        if (index < 0 || index >= size(root)) {
+            return null;
+        }
+        Node<K> node = root;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the entry at the index
+     *
+     * @param index the index, starting from 0
+     * @return the pair of the key and the point, or empty if out of range
+     */
+    @NotNull
+    public Optional<Pair<K, Integer>> get(int index) {
+        Node<K> node = getNode(index);
+        return node == null ? Optional.empty() : Optional.of(Pair.of(node.key, node.point));
+    }
+
+    /**
+     * Iterate through the first entries in order
+     *
+     * @param limit    the maximum number of entries
+     * @param consumer the consumer of the key and the point
+     */
+    public void forEachTop(int limit, @NotNull EntryConsumer<K> consumer) {
+        Deque<Node<K>> stack = new ArrayDeque<>();
+        Node<K> node = root;
+        int count = 0;
+        while (count < limit && (node != null || !stack.isEmpty())) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            consumer.accept(node.key, node.point);
+            count++;
+            node = node.right;
+        }
+    }
+
+    /**
+     * Get the first entries in order
+     *
+     * @param limit the maximum number of entries
+     * @return the list of pairs of the key and the point
+     */
+    @NotNull
+    public List<Pair<K, Integer>> getTop(int limit) {
+        List<Pair<K, Integer>> list = new ArrayList<>(Math.min(limit, size()));
+        forEachTop(limit, (key, point) -> list.add(Pair.of(key, point)));
+        return list;
+    }
+
+    /**
+     * Get all entries in order
+     *
+     * @return the list of pairs of the key and the point
+     */
+    @NotNull
+    public List<Pair<K, Integer>> getTop() {
+        return getTop(size());
+    }
+
+    /**
+     * Get the number of ranked keys
+     *
+     * @return the number of ranked keys
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Remove all keys
+     */
+    public void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    /**
+     * The consumer of an entry in the ranking
+     *
+     * @param <K> the type of the key
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<K> {
+        /**
+         * Accept the entry
+         *
+         * @param key   the key
+         * @param point the point
+         */
+        void accept(K key, int point);
+    }
+
+    private static final class Node<K> {
+        private final K key;
+        private final int priority;
+        private int point;
+        private long sequence;
+        private int size = 1;
+        private Node<K> left;
+        private Node<K> right;
+
+        private Node(K key, int priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+
+        private void update() {
+            size = 1 + PointRanking.size(left) + PointRanking.size(right);
+        }
+    }
+}
\ No newline at end of file
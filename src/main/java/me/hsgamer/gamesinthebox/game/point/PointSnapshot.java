@@ -0,0 +1,73 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.game.point;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * An immutable copy of the points of the players at a point in time
+ */
+public final class PointSnapshot {
+    /**
+     * The empty snapshot
+     */
+    public static final PointSnapshot EMPTY = new PointSnapshot(new PointTable(0));
+
+    private final PointTable table;
+
+    PointSnapshot(@NotNull PointTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Get the point of the player
+     *
+     * @param uuid the uuid of the player
+     * @return the point, or 0 if the player is not in the snapshot
+     */
+    public int get(@NotNull UUID uuid) {
+        return table.get(uuid);
+    }
+
+    /**
+     * Get the number of players in the snapshot
+     *
+     * @return the number of players
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Check if the snapshot is empty
+     *
+     * @return true if it is
+     */
+    public boolean isEmpty() {
+        return table.isEmpty();
+    }
+
+    /**
+     * Iterate through all entries
+     *
+     * @param consumer the consumer
+     */
+    public void forEach(@NotNull PointTable.EntryConsumer consumer) {
+        table.forEach(consumer);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,310 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.game.point;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * A table that maps the {@link UUID} of the players to their points.
+ * The {@link UUID} is stored as its two {@code long} halves and the points are stored as primitive {@code int},
+ * using open addressing with linear probing, so no object is created per entry.
+ * Two different {@link UUID} instances with the same value refer to the same entry.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class PointTable {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] mostBits;
+    private long[] leastBits;
+    private int[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    /**
+     * Create a new table
+     *
+     * @param expectedSize the expected number of entries
+     */
+    public PointTable(int expectedSize) {
+        allocate(tableSizeFor(Math.max(expectedSize, 1) * 2));
+    }
+
+    /**
+     * Create a new table
+     */
+    public PointTable() {
+        this(DEFAULT_CAPACITY / 2);
+    }
+
+    /**
+     * Mix the two halves of the {@link UUID} into a hash
+     *
+     * @param mostBits  the most significant bits
+     * @param leastBits the least significant bits
+     * @return the hash
+     */
+    public static int hash(long mostBits, long leastBits) {
+        long h = mostBits * 0x9E3779B97F4A7C15L ^ leastBits;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = DEFAULT_CAPACITY;
+        while (n < capacity && n < (1 << 30)) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    private void allocate(int capacity) {
+        mostBits = new long[capacity];
+        leastBits = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        threshold = capacity / 4 * 3;
+    }
+
+    private int indexOf(long most, long least) {
+        int index = hash(most, least) & mask;
+        while (used[index]) {
+            if (mostBits[index] == most && leastBits[index] == least) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int insertionIndexOf(long most, long least) {
+        int index = hash(most, least) & mask;
+        while (used[index]) {
+            if (mostBits[index] == most && leastBits[index] == least) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -index - 1;
+    }
+
+    private void rehash() {
+        long[] oldMostBits = mostBits;
+        long[] oldLeastBits = leastBits;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldUsed.length << 1);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int index = -insertionIndexOf(oldMostBits[i], oldLeastBits[i]) - 1;
+                mostBits[index] = oldMostBits[i];
+                leastBits[index] = oldLeastBits[i];
+                values[index] = oldValues[i];
+                used[index] = true;
+            }
+        }
+    }
+
+    private int slot(long most, long least) {
+        int index = insertionIndexOf(most, least);
+        if (index >= 0) {
+            return index;
+        }
+        if (size >= threshold) {
+            rehash();
+            index = insertionIndexOf(most, least);
+        }
+        index = -index - 1;
+        mostBits[index] = most;
+        leastBits[index] = least;
+        values[index] = 0;
+        used[index] = true;
+        size++;
+        return index;
+    }
+
+    /**
+     * Get the point of the player
+     *
+     * @param mostBits  the most significant bits of the {@link UUID}
+     * @param leastBits the least significant bits of the {@link UUID}
+     * @return the point, or 0 if the player is not in the table
+     */
+    public int get(long mostBits, long leastBits) {
+        int index = indexOf(mostBits, leastBits);
+        return index < 0 ? 0 : values[index];
+    }
+
+    /**
+     * Get the point of the player
+     *
+     * @param uuid the uuid of the player
+     * @return the point, or 0 if the player is not in the table
+     */
+    public int get(@NotNull UUID uuid) {
+        return get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Check if the player is in the table
+     *
+     * @param uuid the uuid of the player
+     * @return true if the player is in the table
+     */
+    public boolean contains(@NotNull UUID uuid) {
+        return indexOf(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) >= 0;
+    }
+
+    /**
+     * Set the point of the player
+     *
+     * @param mostBits  the most significant bits of the {@link UUID}
+     * @param leastBits the least significant bits of the {@link UUID}
+     * @param point     the point
+     */
+    public void put(long mostBits, long leastBits, int point) {
+        int index = slot(mostBits, leastBits);
+        values[index] = point;
+    }
+
+    /**
+     * Set the point of the player
+     *
+     * @param uuid  the uuid of the player
+     * @param point the point
+     */
+    public void put(@NotNull UUID uuid, int point) {
+        put(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), point);
+    }
+
+    /**
+     * Add the point to the player
+     *
+     * @param mostBits  the most significant bits of the {@link UUID}
+     * @param leastBits the least significant bits of the {@link UUID}
+     * @param point     the point to add
+     * @return the new point of the player
+     */
+    public int add(long mostBits, long leastBits, int point) {
+        int index = slot(mostBits, leastBits);
+        return values[index] += point;
+    }
+
+    /**
+     * Add the point to the player
+     *
+     * @param uuid  the uuid of the player
+     * @param point the point to add
+     * @return the new point of the player
+     */
+    public int add(@NotNull UUID uuid, int point) {
+        return add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), point);
+    }
+
+    /**
+     * Get the number of entries
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if the table is empty
+     *
+     * @return true if it is
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Iterate through all entries
+     *
+     * @param consumer the consumer
+     */
+    public void forEach(@NotNull EntryConsumer consumer) {
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                consumer.accept(mostBits[i], leastBits[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Replace the point of all entries
+     *
+     * @param function the function to get the new point
+     */
+    public void replaceAll(@NotNull EntryFunction function) {
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                values[i] = function.apply(mostBits[i], leastBits[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * The consumer of an entry
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Accept the entry
+         *
+         * @param mostBits  the most significant bits of the {@link UUID}
+         * @param leastBits the least significant bits of the {@link UUID}
+         * @param point     the point
+         */
+        void accept(long mostBits, long leastBits, int point);
+    }
+
+    /**
+     * The function to get the new point of an entry
+     */
+    @FunctionalInterface
+    public interface EntryFunction {
+        /**
+         * Apply the function
+         *
+         * @param mostBits  the most significant bits of the {@link UUID}
+         * @param leastBits the least significant bits of the {@link UUID}
+         * @param point     the current point
+         * @return the new point
+         */
+        int apply(long mostBits, long leastBits, int point);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,4 @@
+/**
+ * Contains the data structures to store and rank the points of the players
+ */
+package me.hsgamer.gamesinthebox.game.point;
\ No newline at end of file
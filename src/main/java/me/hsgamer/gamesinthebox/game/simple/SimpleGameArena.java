@@ -17,22 +17,29 @@ package me.hsgamer.gamesinthebox.game.simple;
 
 import me.hsgamer.gamesinthebox.game.GameArena;
 import me.hsgamer.gamesinthebox.game.feature.PointFeature;
+import me.hsgamer.gamesinthebox.game.feature.TeamFeature;
 import me.hsgamer.gamesinthebox.game.feature.TopFeature;
+import me.hsgamer.gamesinthebox.game.point.CoalescingPointConsumer;
 import me.hsgamer.gamesinthebox.game.simple.feature.DescriptiveHologramFeature;
 import me.hsgamer.gamesinthebox.game.simple.feature.SimplePointFeature;
 import me.hsgamer.gamesinthebox.game.simple.feature.SimpleRewardFeature;
 import me.hsgamer.gamesinthebox.game.simple.feature.SimpleUpdateFeature;
 import me.hsgamer.gamesinthebox.planner.Planner;
+import me.hsgamer.gamesinthebox.planner.PlannerSnapshot;
+import me.hsgamer.gamesinthebox.planner.feature.PluginFeature;
+import me.hsgamer.gamesinthebox.replacement.CompositeVersion;
+import me.hsgamer.gamesinthebox.replacement.ReplacementRegistry;
+import me.hsgamer.gamesinthebox.replacement.VersionedStringReplacer;
+import me.hsgamer.gamesinthebox.util.PlayerNameUtil;
 import me.hsgamer.gamesinthebox.util.TimeUtil;
 import me.hsgamer.hscore.common.Pair;
 import me.hsgamer.minigamecore.base.Feature;
 import me.hsgamer.minigamecore.implementation.feature.TimerFeature;
-import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The simple {@link GameArena}.
@@ -41,6 +48,7 @@ import java.util.*;
  *     <li>{@link TimerFeature}</li>
  *     <li>{@link SimplePointFeature} ({@link PointFeature})</li>
  *     <li>{@link SimpleRewardFeature} ({@link me.hsgamer.gamesinthebox.game.feature.RewardFeature})</li>
+ *     <li>{@link TeamFeature}</li>
  *     <li>{@link TopFeature}</li>
  *     <li>{@link DescriptiveHologramFeature}</li>
  *     <li>{@link SimpleUpdateFeature}</li>
@@ -58,11 +66,20 @@ import java.util.*;
  *     <li>{@code top_value_[index]}: The value part of the top at the index</li>
  *     <li>{@code top_name_[index]}: The name part of the top at the index</li>
  *     <li>{@code top}: The top position of the player</li>
+ *     <li>{@code team_top_value_[index]}: The total point of the team at the index of the team top</li>
+ *     <li>{@code team_top_name_[index]}: The name of the team at the index of the team top</li>
+ *     <li>{@code team}: The team of the player</li>
+ *     <li>{@code team_point}: The total point of the team of the player</li>
+ *     <li>{@code team_top}: The top position of the team of the player</li>
  * </ul>
  */
-public abstract class SimpleGameArena extends GameArena {
+public abstract class SimpleGameArena extends GameArena implements VersionedStringReplacer {
     private final SimpleGame game;
+    private final CompositeVersion timeLeftVersion = new CompositeVersion();
+    private final CompositeVersion topVersion = new CompositeVersion();
+    private final Map<Integer, CompositeVersion> topNameVersions = new ConcurrentHashMap<>();
     private SimpleGameArenaAction gameAction;
+    private volatile ReplacementRegistry replacementRegistry;
 
     /**
      * Create a new game arena
@@ -87,6 +104,18 @@ public abstract class SimpleGameArena extends GameArena {
         // EMPTY
     }
 
+    /**
+     * Check if the changes of the point of a player in a tick should be merged before calling {@link #onPointChanged(UUID, int, int)}.
+     * If it is, {@link #onPointChanged(UUID, int, int)} is called in the next tick, once per player with the net applied point,
+     * which is 0 if the changes cancel each other out.
+     * The pending changes are passed before the game is over and before the points are cleared.
+     *
+     * @return true if the changes should be merged
+     */
+    protected boolean isPointChangeCoalesced() {
+        return false;
+    }
+
     /**
      * Called when the players are not rewarded, usually because the number of players is less than {@link SimpleRewardFeature#getMinPlayersToReward()}
      *
@@ -129,7 +158,13 @@ public abstract class SimpleGameArena extends GameArena {
     protected List<Feature> loadFeatures() {
         List<Feature> features = super.loadFeatures();
         features.add(new TimerFeature());
-        features.add(new SimplePointFeature(this, this::onPointChanged, game.getPointValues()));
+        PointFeature.PointConsumer pointConsumer = this::onPointChanged;
+        if (isPointChangeCoalesced()) {
+            pointConsumer = new CoalescingPointConsumer(getFeature(PluginFeature.class).getPlugin(), pointConsumer);
+        }
+        SimplePointFeature pointFeature = new SimplePointFeature(this, pointConsumer, game.getPointValues());
+        features.add(pointFeature);
+        features.add(new TeamFeature(pointFeature));
         features.add(new SimpleRewardFeature(this, this::onFailedToReward));
         features.add(new TopFeature());
         features.add(new DescriptiveHologramFeature(this));
@@ -137,56 +172,184 @@ public abstract class SimpleGameArena extends GameArena {
         return features;
     }
 
-    @Override
-    public @Nullable String replace(@NotNull String input) {
-        String lowerCase = input.toLowerCase();
-        if (input.equalsIgnoreCase("time_left")) {
-            return Optional.ofNullable(getFeature(TimerFeature.class))
-                    .map(TimerFeature::getDuration)
-                    .map(TimeUtil::formatStandardTime)
-                    .orElse("N/A");
-        } else if (input.equalsIgnoreCase("min_players_to_reward")) {
-            return Optional.ofNullable(getFeature(SimpleRewardFeature.class))
-                    .map(SimpleRewardFeature::getMinPlayersToReward)
-                    .filter(integer -> integer >= 0)
-                    .map(Objects::toString)
+    /**
+     * Register the replacement queries of the arena.
+     * This is called once, when the first query is replaced.
+     * Override this method to add more queries.
+     *
+     * @param registry the registry
+     */
+    protected void registerReplacements(@NotNull ReplacementRegistry registry) {
+        registry.register("time_left", () -> {
+            long timeLeft = getTimeLeft();
+            return timeLeft < 0 ? "N/A" : TimeUtil.format(timeLeft);
+        }, this::getTimeLeftVersion);
+        registry.registerPrefix("time_left_", String::toLowerCase, (format, uuid) -> {
+            long timeLeft = getTimeLeft();
+            return timeLeft < 0 ? "N/A" : TimeUtil.format(format, timeLeft);
+        }, format -> getTimeLeftVersion(), format -> true);
+        registry.register("min_players_to_reward", () -> Optional.ofNullable(getFeature(SimpleRewardFeature.class))
+                .map(SimpleRewardFeature::getMinPlayersToReward)
+                .filter(integer -> integer >= 0)
+                .map(Objects::toString)
+                .orElse("N/A"), () -> 0L);
+        registry.registerPrefix("point_", String::toLowerCase, (pointName, uuid) -> Optional.ofNullable(getFeature(SimplePointFeature.class))
+                .flatMap(simplePointFeature -> simplePointFeature.getPoint(pointName))
+                .map(Objects::toString)
+                .orElse("N/A"), pointName -> 0L, pointName -> true);
+        registry.registerIndex("top_value_", index -> {
+            PlannerSnapshot snapshot = getCurrentSnapshot();
+            if (snapshot != null) {
+                return snapshot.getTop(index).map(Pair::getValue).orElse("---");
+            }
+            return Optional.ofNullable(getFeature(TopFeature.class))
+                    .map(topFeature -> topFeature.getTop(index).map(Pair::getValue).map(Objects::toString).orElse("---"))
                     .orElse("N/A");
-        } else if (lowerCase.startsWith("point_")) {
-            String pointName = lowerCase.substring(6);
-            return Optional.ofNullable(getFeature(SimplePointFeature.class))
-                    .flatMap(simplePointFeature -> simplePointFeature.getPoint(pointName))
-                    .map(Objects::toString)
+        }, index -> getTopVersion());
+        registry.registerIndex("top_name_", index -> {
+            PlannerSnapshot snapshot = getCurrentSnapshot();
+            if (snapshot != null) {
+                return snapshot.getTop(index).map(Pair::getKey).map(PlayerNameUtil::getName).orElse("---");
+            }
+            return Optional.ofNullable(getFeature(TopFeature.class))
+                    .map(topFeature -> topFeature.getTop(index).map(Pair::getKey).map(PlayerNameUtil::getName).orElse("---"))
                     .orElse("N/A");
-        } else if (lowerCase.startsWith("top_")) {
+        }, index -> {
+            long version = getTopVersion();
+            PlannerSnapshot snapshot = getCurrentSnapshot();
             TopFeature topFeature = getFeature(TopFeature.class);
-            if (topFeature == null) {
-                return "N/A";
+            Optional<Pair<UUID, String>> entry;
+            if (snapshot != null) {
+                entry = snapshot.getTop(index);
+            } else {
+                entry = topFeature == null ? Optional.empty() : topFeature.getTop(index);
             }
-
-            if (lowerCase.startsWith("top_value_")) {
-                int index = Integer.parseInt(lowerCase.substring(10)) - 1;
-                return topFeature.getTop(index).map(Pair::getValue).map(Objects::toString).orElse("---");
-            } else if (lowerCase.startsWith("top_name_")) {
-                int index = Integer.parseInt(lowerCase.substring(9)) - 1;
-                return topFeature.getTop(index).map(Pair::getKey).map(Bukkit::getOfflinePlayer).map(OfflinePlayer::getName).orElse("---");
+            boolean hasName = entry.map(Pair::getKey).map(PlayerNameUtil::getName).isPresent();
+            return topNameVersions.computeIfAbsent(index, key -> new CompositeVersion()).get(version, hasName ? 1 : 0);
+        });
+        registry.registerIndex("team_top_value_", index -> Optional.ofNullable(getFeature(TeamFeature.class))
+                .map(teamFeature -> teamFeature.getTeamTop(index).map(Pair::getValue).map(Objects::toString).orElse("---"))
+                .orElse("N/A"));
+        registry.registerIndex("team_top_name_", index -> Optional.ofNullable(getFeature(TeamFeature.class))
+                .map(teamFeature -> teamFeature.getTeamTop(index).map(Pair::getKey).orElse("---"))
+                .orElse("N/A"));
+        registry.registerPlayer("point", uuid -> {
+            PlannerSnapshot snapshot = getCurrentSnapshot();
+            if (snapshot != null) {
+                return Integer.toString(snapshot.getPoint(uuid));
             }
-        }
-        return null;
-    }
-
-    @Override
-    public @Nullable String replace(@NotNull String input, @NotNull UUID uuid) {
-        if (input.equalsIgnoreCase("point")) {
             return Optional.ofNullable(getFeature(PointFeature.class))
                     .map(pointFeature -> pointFeature.getPoint(uuid))
                     .map(Objects::toString)
                     .orElse("N/A");
-        } else if (input.equalsIgnoreCase("top")) {
+        });
+        registry.registerPlayer("top", uuid -> {
+            PlannerSnapshot snapshot = getCurrentSnapshot();
+            if (snapshot != null) {
+                return Integer.toString(snapshot.getTopIndex(uuid) + 1);
+            }
             return Optional.ofNullable(getFeature(TopFeature.class))
                     .map(pointFeature -> pointFeature.getTopIndex(uuid) + 1)
                     .map(Objects::toString)
                     .orElse("N/A");
+        });
+        registry.registerPlayer("team", uuid -> Optional.ofNullable(getFeature(TeamFeature.class))
+                .flatMap(teamFeature -> teamFeature.getTeam(uuid))
+                .orElse("---"));
+        registry.registerPlayer("team_point", uuid -> {
+            TeamFeature teamFeature = getFeature(TeamFeature.class);
+            return Optional.ofNullable(teamFeature)
+                    .flatMap(feature -> feature.getTeam(uuid))
+                    .map(team -> Integer.toString(teamFeature.getTeamPoint(team)))
+                    .orElse("N/A");
+        });
+        registry.registerPlayer("team_top", uuid -> {
+            TeamFeature teamFeature = getFeature(TeamFeature.class);
+            return Optional.ofNullable(teamFeature)
+                    .flatMap(feature -> feature.getTeam(uuid))
+                    .map(team -> Integer.toString(teamFeature.getTeamIndex(team) + 1))
+                    .orElse("N/A");
+        });
+    }
+
+    private long getTimeLeft() {
+        PlannerSnapshot snapshot = getCurrentSnapshot();
+        if (snapshot != null) {
+            return snapshot.getTimeLeft();
+        }
+        TimerFeature timerFeature = getFeature(TimerFeature.class);
+        return timerFeature == null ? -1 : Math.max(0, timerFeature.getDuration());
+    }
+
+    private long getTimeLeftVersion() {
+        PlannerSnapshot snapshot = getCurrentSnapshot();
+        if (snapshot != null) {
+            return timeLeftVersion.get(1, snapshot.getTimeLeft() / 1000L);
+        }
+        TimerFeature timerFeature = getFeature(TimerFeature.class);
+        return timeLeftVersion.get(0, timerFeature == null ? -1 : Math.max(0, timerFeature.getDuration() / 1000L));
+    }
+
+    private long getTopVersion() {
+        PlannerSnapshot snapshot = getCurrentSnapshot();
+        if (snapshot != null) {
+            return topVersion.get(1, snapshot.getTopVersion());
         }
-        return super.replace(input, uuid);
+        TopFeature topFeature = getFeature(TopFeature.class);
+        return topVersion.get(0, topFeature == null ? -1 : topFeature.getVersion());
+    }
+
+    /**
+     * Get the snapshot of the planner if this arena is its current game arena.
+     * The snapshot is preferred for the queries, so they read consistent values without touching the live features.
+     *
+     * @return the snapshot, or null if this arena is not the current game arena of the planner
+     */
+    @Nullable
+    protected final PlannerSnapshot getCurrentSnapshot() {
+        PlannerSnapshot snapshot = getPlanner().getSnapshot();
+        return snapshot.getGame() == this ? snapshot : null;
+    }
+
+    /**
+     * Get the registry of the replacement queries of the arena
+     *
+     * @return the registry
+     * @see #registerReplacements(ReplacementRegistry)
+     */
+    @NotNull
+    protected final ReplacementRegistry getReplacementRegistry() {
+        ReplacementRegistry registry = replacementRegistry;
+        if (registry == null) {
+            synchronized (this) {
+                registry = replacementRegistry;
+                if (registry == null) {
+                    registry = new ReplacementRegistry();
+                    registerReplacements(registry);
+                    replacementRegistry = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
+    @Override
+    public @Nullable String replace(@NotNull String input) {
+        return getReplacementRegistry().replace(input);
+    }
+
+    @Override
+    public @Nullable String replace(@NotNull String input, @NotNull UUID uuid) {
+        return getReplacementRegistry().replace(input, uuid);
+    }
+
+    @Override
+    public long getVersion(@NotNull String query) {
+        return getReplacementRegistry().getVersion(query);
+    }
+
+    @Override
+    public boolean isShared(@NotNull String query) {
+        return getReplacementRegistry().isShared(query);
     }
 }
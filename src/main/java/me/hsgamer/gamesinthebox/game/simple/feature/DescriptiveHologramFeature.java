@@ -22,9 +22,12 @@ import me.hsgamer.gamesinthebox.game.simple.SimpleGameArena;
 import me.hsgamer.gamesinthebox.game.simple.SimpleGameEditor;
 import me.hsgamer.gamesinthebox.game.simple.action.CurrentLocationAction;
 import me.hsgamer.gamesinthebox.game.simple.action.NumberAction;
+import me.hsgamer.gamesinthebox.manager.PlayerChunkManager;
+import me.hsgamer.gamesinthebox.planner.feature.PluginFeature;
 import me.hsgamer.gamesinthebox.planner.feature.VariableFeature;
+import me.hsgamer.gamesinthebox.planner.template.VariableTemplate;
+import me.hsgamer.gamesinthebox.replacement.VersionedStringReplacer;
 import me.hsgamer.gamesinthebox.util.LocationUtil;
-import me.hsgamer.hscore.bukkit.utils.ColorUtils;
 import me.hsgamer.hscore.bukkit.utils.MessageUtils;
 import me.hsgamer.hscore.common.CollectionUtils;
 import me.hsgamer.hscore.common.MapUtils;
@@ -36,6 +39,7 @@ import me.hsgamer.unihologram.common.line.TextHologramLine;
 import org.bukkit.Location;
 import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -74,6 +78,9 @@ import java.util.stream.IntStream;
  * </pre>
  * <p>
  * A line with the format {@code default:<name>} will be replaced with the default lines from {@link SimpleGameArena#getDefaultHologramLines(String)}
+ * <p>
+ * The holograms without any player nearby, as seen by the {@link PlayerChunkManager}, are not updated,
+ * and are updated once a player comes in range.
  */
 public class DescriptiveHologramFeature implements Feature {
     private final SimpleGameArena arena;
@@ -125,36 +132,116 @@ public class DescriptiveHologramFeature implements Feature {
                     finalLines.add(line);
                 }
             }
-            Hologram<Location> hologram = arena.getFeature(HologramFeature.class).createHologram(location);
-            hologramUpdaters.add(new HologramUpdater(hologram, finalLines, lines));
+            Hologram<Location> hologram = arena.getFeature(HologramFeature.class).getHologram(arena.getName(), hologramUpdaters.size(), location);
+            hologramUpdaters.add(new HologramUpdater(hologram, location, finalLines, lines));
         }
     }
 
     @Override
     public void clear() {
-        clearHologram();
+        HologramFeature hologramFeature = arena.getFeature(HologramFeature.class);
+        hologramUpdaters.forEach(hologramUpdater -> hologramFeature.removeHologram(hologramUpdater.hologram));
         hologramUpdaters.clear();
     }
 
     /**
-     * Initialize the holograms
+     * Initialize the holograms.
+     * The holograms from the previous game are shown again instead of being created again.
      */
     public void initHologram() {
-        hologramUpdaters.forEach(hologramUpdater -> HologramFeature.reInit(hologramUpdater.hologram));
+        hologramUpdaters.forEach(hologramUpdater -> {
+            hologramUpdater.reset();
+            HologramFeature.show(hologramUpdater.hologram);
+        });
+    }
+
+    /**
+     * Render the holograms that have players nearby.
+     * The other holograms are marked as stale.
+     * This only renders the lines, the returned actions send them to the holograms.
+     *
+     * @return the pairs of the location of the hologram and the action to apply its rendered lines
+     */
+    @NotNull
+    public List<Pair<Location, Runnable>> renderHologram() {
+        PlayerChunkManager playerChunkManager = arena.getFeature(PluginFeature.class).getPlugin().getPlayerChunkManager();
+        List<Pair<Location, Runnable>> actions = new ArrayList<>();
+        for (HologramUpdater hologramUpdater : hologramUpdaters) {
+            if (playerChunkManager.hasPlayerNear(hologramUpdater.location)) {
+                Runnable action = hologramUpdater.render();
+                if (action != null) {
+                    actions.add(Pair.of(hologramUpdater.location, action));
+                }
+            } else {
+                hologramUpdater.isStale = true;
+            }
+        }
+        return actions;
     }
 
     /**
-     * Update the holograms
+     * Render the stale holograms that have players nearby now
+     *
+     * @return the pairs of the location of the hologram and the action to apply its rendered lines
+     */
+    @NotNull
+    public List<Pair<Location, Runnable>> renderStaleHologram() {
+        PlayerChunkManager playerChunkManager = null;
+        List<Pair<Location, Runnable>> actions = new ArrayList<>();
+        for (HologramUpdater hologramUpdater : hologramUpdaters) {
+            if (!hologramUpdater.isStale) {
+                continue;
+            }
+            if (playerChunkManager == null) {
+                playerChunkManager = arena.getFeature(PluginFeature.class).getPlugin().getPlayerChunkManager();
+            }
+            if (playerChunkManager.hasPlayerNear(hologramUpdater.location)) {
+                Runnable action = hologramUpdater.render();
+                if (action != null) {
+                    actions.add(Pair.of(hologramUpdater.location, action));
+                }
+            }
+        }
+        return actions;
+    }
+
+    /**
+     * Update the holograms that have players nearby.
+     * The other holograms are marked as stale.
      */
     public void updateHologram() {
-        hologramUpdaters.forEach(HologramUpdater::update);
+        renderHologram().forEach(pair -> pair.getValue().run());
+    }
+
+    /**
+     * Update the stale holograms that have players nearby now
+     */
+    public void updateStaleHologram() {
+        renderStaleHologram().forEach(pair -> pair.getValue().run());
+    }
+
+    /**
+     * Get the number of lines of all holograms
+     *
+     * @return the number of lines
+     */
+    public int getLineCount() {
+        int count = 0;
+        for (HologramUpdater hologramUpdater : hologramUpdaters) {
+            count += hologramUpdater.lines.size();
+        }
+        return count;
     }
 
     /**
-     * Clear the holograms
+     * Clear the holograms.
+     * The holograms are hidden, so they can be shown again in the next game.
      */
     public void clearHologram() {
-        hologramUpdaters.forEach(hologramUpdater -> HologramFeature.clearIfInitialized(hologramUpdater.hologram));
+        hologramUpdaters.forEach(hologramUpdater -> {
+            HologramFeature.hide(hologramUpdater.hologram);
+            hologramUpdater.reset();
+        });
     }
 
     /**
@@ -410,7 +497,11 @@ public class DescriptiveHologramFeature implements Feature {
     }
 
     /**
-     * The updater for the hologram
+     * The updater for the hologram.
+     * Each line records the versions of the variables it read, and is only rendered again when one of them changes,
+     * so the static lines are rendered once. Only the lines whose text is different are sent to the hologram.
+     * The lines are rendered first, and the returned action sends them to the hologram later.
+     * The state of the rendered lines is guarded by one lock, since the lines are rendered off the main thread and reset on it.
      */
     public class HologramUpdater {
         @NotNull
@@ -419,23 +510,112 @@ public class DescriptiveHologramFeature implements Feature {
         public final List<String> lines;
         @NotNull
         public final List<String> rawLines;
-
-        private HologramUpdater(@NotNull Hologram<Location> hologram, @NotNull List<String> lines, @NotNull List<String> rawLines) {
+        private final VariableFeature variableFeature;
+        private final List<VariableTemplate> templates;
+        private final String[][] variables;
+        private final long[][] versions;
+        private final String[] renderedLines;
+        private final HologramLine[] hologramLines;
+        private final int[] changedIndexes;
+        private final Location location;
+        private final Object lock = new Object();
+        private boolean isPushed = false;
+        private volatile boolean isStale = false;
+        private volatile int generation = 0;
+
+        private HologramUpdater(@NotNull Hologram<Location> hologram, @NotNull Location location, @NotNull List<String> lines, @NotNull List<String> rawLines) {
             this.hologram = hologram;
+            this.location = location;
             this.lines = lines;
             this.rawLines = rawLines;
+            this.variableFeature = arena.getFeature(VariableFeature.class);
+            this.templates = lines.stream().map(variableFeature::compile).collect(Collectors.toList());
+            this.variables = new String[templates.size()][];
+            this.versions = new long[templates.size()][];
+            for (int i = 0; i < templates.size(); i++) {
+                variables[i] = templates.get(i).getVariables().toArray(new String[0]);
+                versions[i] = new long[variables[i].length];
+            }
+            this.renderedLines = new String[templates.size()];
+            this.hologramLines = new HologramLine[templates.size()];
+            this.changedIndexes = new int[templates.size()];
+        }
+
+        private boolean isChanged(int index) {
+            boolean changed = renderedLines[index] == null;
+            String[] lineVariables = variables[index];
+            long[] lineVersions = versions[index];
+            for (int i = 0; i < lineVariables.length; i++) {
+                long version = variableFeature.getVersion(lineVariables[i]);
+                if (version == VersionedStringReplacer.UNVERSIONED || version != lineVersions[i]) {
+                    changed = true;
+                }
+                lineVersions[i] = version;
+            }
+            return changed;
+        }
+
+        private void reset() {
+            synchronized (lock) {
+                isPushed = false;
+                isStale = false;
+                Arrays.fill(renderedLines, null);
+                generation++;
+            }
         }
 
-        private void update() {
+        @Nullable
+        private Runnable render() {
+            synchronized (lock) {
+                return renderLocked();
+            }
+        }
+
+        @Nullable
+        private Runnable renderLocked() {
+            isStale = false;
             if (!hologram.isInitialized()) {
-                return;
+                isPushed = false;
+                return null;
             }
-            List<HologramLine> replacedLines = lines.stream()
-                    .map(line -> arena.getFeature(VariableFeature.class).replace(line))
-                    .map(ColorUtils::colorize)
-                    .map(TextHologramLine::new)
-                    .collect(Collectors.toList());
-            hologram.setLines(replacedLines);
+            int currentGeneration = generation;
+            int changedCount = 0;
+            for (int i = 0; i < templates.size(); i++) {
+                if (!isChanged(i)) {
+                    continue;
+                }
+                String line = variableFeature.render(templates.get(i));
+                if (!line.equals(renderedLines[i])) {
+                    renderedLines[i] = line;
+                    hologramLines[i] = new TextHologramLine(line);
+                    changedIndexes[changedCount++] = i;
+                }
+            }
+            if (!isPushed || changedCount * 2 > hologramLines.length) {
+                isPushed = true;
+                List<HologramLine> newLines = new ArrayList<>(Arrays.asList(hologramLines));
+                return () -> {
+                    if (generation == currentGeneration && hologram.isInitialized()) {
+                        hologram.setLines(newLines);
+                    }
+                };
+            }
+            if (changedCount == 0) {
+                return null;
+            }
+            int[] indexes = Arrays.copyOf(changedIndexes, changedCount);
+            HologramLine[] changedLines = new HologramLine[changedCount];
+            for (int i = 0; i < changedCount; i++) {
+                changedLines[i] = hologramLines[indexes[i]];
+            }
+            return () -> {
+                if (generation != currentGeneration || !hologram.isInitialized()) {
+                    return;
+                }
+                for (int i = 0; i < indexes.length; i++) {
+                    hologram.setLine(indexes[i], changedLines[i]);
+                }
+            };
         }
     }
 }
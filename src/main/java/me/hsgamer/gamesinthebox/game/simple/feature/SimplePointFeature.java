@@ -17,6 +17,7 @@ package me.hsgamer.gamesinthebox.game.simple.feature;
 
 import me.hsgamer.gamesinthebox.game.feature.GameConfigFeature;
 import me.hsgamer.gamesinthebox.game.feature.PointFeature;
+import me.hsgamer.gamesinthebox.game.point.PointTable;
 import me.hsgamer.gamesinthebox.game.simple.SimpleGameAction;
 import me.hsgamer.gamesinthebox.game.simple.SimpleGameArena;
 import me.hsgamer.gamesinthebox.game.simple.SimpleGameEditor;
@@ -91,6 +92,14 @@ public class SimplePointFeature extends PointFeature {
                 .ifPresent(point -> pointMap.put(key, point)));
     }
 
+    private int evaluate(@NotNull PointValue pointValue, @NotNull UnaryOperator<Integer> pointModifier) {
+        return pointModifier.apply(
+                pointValue.pointOperator.apply(
+                        pointMap.getOrDefault(pointValue.name, pointValue.defaultPoint)
+                )
+        );
+    }
+
     /**
      * Apply the point to the player
      *
@@ -99,30 +108,41 @@ public class SimplePointFeature extends PointFeature {
      * @param pointModifier the point modifier
      */
     public void applyPoint(@NotNull UUID uuid, @NotNull PointValue pointValue, @NotNull UnaryOperator<Integer> pointModifier) {
-        int point = pointModifier.apply(
-                pointValue.pointOperator.apply(
-                        pointMap.getOrDefault(pointValue.name, pointValue.defaultPoint)
-                )
-        );
-        applyPoint(uuid, point);
+        applyPoint(uuid, evaluate(pointValue, pointModifier));
     }
 
     /**
-     * Apply the point to the players
+     * Apply the point to the players in one pass
      *
      * @param uuids         the uuids of the players
      * @param pointValue    the point value
      * @param pointModifier the point modifier
      */
     public void applyPoint(@NotNull List<@NotNull UUID> uuids, @NotNull PointValue pointValue, @NotNull UnaryOperator<Integer> pointModifier) {
-        int point = pointModifier.apply(
-                pointValue.pointOperator.apply(
-                        pointMap.getOrDefault(pointValue.name, pointValue.defaultPoint)
-                )
-        );
-        for (UUID uuid : uuids) {
-            applyPoint(uuid, point);
-        }
+        applyPoint(uuids, evaluate(pointValue, pointModifier));
+    }
+
+    /**
+     * Apply the point values to the players in one pass.
+     * Each distinct point value is evaluated once.
+     *
+     * @param pointValues   the map of the players and the point values
+     * @param pointModifier the point modifier
+     */
+    public void applyPointValues(@NotNull Map<UUID, PointValue> pointValues, @NotNull UnaryOperator<Integer> pointModifier) {
+        Map<PointValue, Integer> evaluated = new IdentityHashMap<>();
+        PointTable table = new PointTable(pointValues.size());
+        pointValues.forEach((uuid, pointValue) -> table.add(uuid, evaluated.computeIfAbsent(pointValue, value -> evaluate(value, pointModifier))));
+        applyPoints(table);
+    }
+
+    /**
+     * Apply the point values to the players in one pass
+     *
+     * @param pointValues the map of the players and the point values
+     */
+    public void applyPointValues(@NotNull Map<UUID, PointValue> pointValues) {
+        applyPointValues(pointValues, UnaryOperator.identity());
     }
 
     /**
@@ -136,7 +156,7 @@ public class SimplePointFeature extends PointFeature {
     }
 
     /**
-     * Apply the point to the players
+     * Apply the point to the players in one pass
      *
      * @param uuids      the uuids of the players
      * @param pointValue the point value
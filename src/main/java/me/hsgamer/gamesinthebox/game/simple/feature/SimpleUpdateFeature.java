@@ -15,24 +15,50 @@
 */
 package me.hsgamer.gamesinthebox.game.simple.feature;
 
+import me.hsgamer.gamesinthebox.GamesInTheBox;
+import me.hsgamer.gamesinthebox.game.feature.GameConfigFeature;
+import me.hsgamer.gamesinthebox.game.feature.TeamFeature;
 import me.hsgamer.gamesinthebox.game.feature.TopFeature;
 import me.hsgamer.gamesinthebox.game.simple.SimpleGameArena;
+import me.hsgamer.gamesinthebox.manager.HologramUpdateManager;
+import me.hsgamer.gamesinthebox.planner.feature.GameRunnerFeature;
 import me.hsgamer.gamesinthebox.planner.feature.PluginFeature;
-import me.hsgamer.hscore.bukkit.scheduler.Scheduler;
-import me.hsgamer.hscore.bukkit.scheduler.Task;
+import me.hsgamer.hscore.common.Pair;
+import me.hsgamer.hscore.common.Validate;
 import me.hsgamer.minigamecore.base.Feature;
-import org.bukkit.plugin.Plugin;
+import me.hsgamer.minigamecore.implementation.feature.TimerFeature;
+import org.bukkit.Location;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 
 /**
- * The {@link Feature} that updates the arena
+ * The {@link Feature} that updates the arena.
+ * The holograms are only updated when the points, the time left, the state of the arena or the state of the planner are changed,
+ * or when the maximum interval of ticks of the {@link HologramUpdateManager} is passed. The top is only updated when the points are changed. The stale holograms are checked in every run, to catch up once a player comes in range.
+ * The runs of all arenas are scheduled by the shared {@link HologramUpdateManager}, which renders the holograms in parallel and applies them on the thread of their locations.
+ * The intervals (in ticks) can be set in the {@link GameConfigFeature}.
+ * <pre>
+ *     update-interval:
+ *       min: 20
+ *       max: 100
+ * </pre>
  */
 public class SimpleUpdateFeature implements Feature {
-    private final Plugin plugin;
+    private final GamesInTheBox plugin;
     private final SimpleGameArena arena;
-    private Task task;
+    private long minInterval = 20L;
+    private long maxInterval = 100L;
+    private HologramUpdateManager.Handle handle;
+    private volatile boolean forceUpdate = true;
+    private long lastUpdateTick;
+    private long lastPointVersion = -1;
+    private long lastTimeLeft = -1;
+    private long lastRunnerVersion = -1;
+    private Class<?> lastState;
+    private Class<?> lastPlannerState;
 
     /**
      * Create a new {@link SimpleUpdateFeature}
@@ -44,38 +70,162 @@ public class SimpleUpdateFeature implements Feature {
         this.arena = arena;
     }
 
+    @Override
+    public void postInit() {
+        GameConfigFeature gameConfigFeature = arena.getFeature(GameConfigFeature.class);
+        minInterval = Optional.ofNullable(gameConfigFeature.getString("update-interval.min"))
+                .flatMap(Validate::getNumber)
+                .map(Number::longValue)
+                .filter(interval -> interval > 0)
+                .orElse(minInterval);
+        maxInterval = Optional.ofNullable(gameConfigFeature.getString("update-interval.max"))
+                .flatMap(Validate::getNumber)
+                .map(Number::longValue)
+                .orElse(maxInterval);
+        maxInterval = Math.max(minInterval, maxInterval);
+    }
+
     /**
      * Initialize the state
      */
     public void initState() {
         arena.getFeature(DescriptiveHologramFeature.class).initHologram();
-        task = Scheduler.plugin(plugin).async().runTaskTimer(this::updateState, 0L, 20L);
+        markChanged();
+        lastUpdateTick = plugin.getHologramUpdateManager().getTick();
+        DescriptiveHologramFeature hologramFeature = arena.getFeature(DescriptiveHologramFeature.class);
+        handle = plugin.getHologramUpdateManager().register(minInterval, hologramFeature::getLineCount, this::tryRenderState);
+    }
+
+    /**
+     * Mark the state as changed, so it will be updated in the next run
+     */
+    public void markChanged() {
+        forceUpdate = true;
     }
 
     /**
-     * Update the state
+     * Check if the points are changed since the last update
+     *
+     * @return true if they are
      */
-    private void updateState() {
-        arena.getFeature(TopFeature.class).setTop(arena.getFeature(SimplePointFeature.class).getTopAsStringPair());
-        arena.getFeature(DescriptiveHologramFeature.class).updateHologram();
+    private boolean checkPointChanged() {
+        long pointVersion = arena.getFeature(SimplePointFeature.class).getVersion();
+        if (pointVersion != lastPointVersion) {
+            lastPointVersion = pointVersion;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Check if any input of the state other than the points is changed since the last update
+     *
+     * @return true if it is
+     */
+    private boolean checkChanged() {
+        boolean changed = false;
+
+        TimerFeature timerFeature = arena.getFeature(TimerFeature.class);
+        long timeLeft = timerFeature == null ? 0 : timerFeature.getDuration() / 1000L;
+        if (timeLeft != lastTimeLeft) {
+            lastTimeLeft = timeLeft;
+            changed = true;
+        }
+
+        Class<?> state = arena.getCurrentState();
+        if (state != lastState) {
+            lastState = state;
+            changed = true;
+        }
+
+        Class<?> plannerState = arena.getPlanner().getCurrentState();
+        if (plannerState != lastPlannerState) {
+            lastPlannerState = plannerState;
+            changed = true;
+        }
+
+        long runnerVersion = arena.getPlanner().getFeature(GameRunnerFeature.class).getVersion();
+        if (runnerVersion != lastRunnerVersion) {
+            lastRunnerVersion = runnerVersion;
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    /**
+     * Render the state if the inputs are changed or the maximum interval is passed
+     *
+     * @return the pairs of the location of the hologram and the action to apply its rendered lines
+     */
+    @NotNull
+    private List<Pair<Location, Runnable>> tryRenderState() {
+        long currentTick = plugin.getHologramUpdateManager().getTick();
+        boolean force = forceUpdate;
+        boolean pointChanged = checkPointChanged();
+        boolean changed = checkChanged();
+        if (force || pointChanged || changed || currentTick - lastUpdateTick >= maxInterval) {
+            forceUpdate = false;
+            lastUpdateTick = currentTick;
+            return renderState(force || pointChanged);
+        } else {
+            return arena.getFeature(DescriptiveHologramFeature.class).renderStaleHologram();
+        }
+    }
+
+    /**
+     * Render the holograms, and update the top first if the points are changed
+     *
+     * @param updateTop true to update the top
+     * @return the pairs of the location of the hologram and the action to apply its rendered lines
+     */
+    @NotNull
+    private List<Pair<Location, Runnable>> renderState(boolean updateTop) {
+        if (updateTop) {
+            arena.getFeature(TopFeature.class).setTop(arena.getFeature(SimplePointFeature.class).getTopAsStringPair());
+        }
+        return arena.getFeature(DescriptiveHologramFeature.class).renderHologram();
     }
 
     /**
      * Clear the state
      */
     public void clearState() {
-        if (task != null) {
-            task.cancel();
+        if (handle != null) {
+            handle.cancel();
+            handle = null;
         }
-        arena.getFeature(SimplePointFeature.class).clearPoints();
+        SimplePointFeature pointFeature = arena.getFeature(SimplePointFeature.class);
+        pointFeature.flushPointChanges();
+        pointFeature.clearPoints();
+        arena.getFeature(TeamFeature.class).clearTeams();
         arena.getFeature(TopFeature.class).setTop(Collections.emptyList());
         arena.getFeature(DescriptiveHologramFeature.class).clearHologram();
     }
 
+    /**
+     * Get the minimum interval between updates, in ticks
+     *
+     * @return the minimum interval
+     */
+    public long getMinInterval() {
+        return minInterval;
+    }
+
+    /**
+     * Get the maximum interval between updates, in ticks
+     *
+     * @return the maximum interval
+     */
+    public long getMaxInterval() {
+        return maxInterval;
+    }
+
     @Override
     public void clear() {
-        if (task != null) {
-            task.cancel();
+        if (handle != null) {
+            handle.cancel();
+            handle = null;
         }
     }
 }
@@ -23,6 +23,7 @@ import me.hsgamer.gamesinthebox.game.template.feature.CooldownFeature;
 import me.hsgamer.gamesinthebox.game.template.state.IdlingState;
 import me.hsgamer.gamesinthebox.planner.Planner;
 import me.hsgamer.gamesinthebox.planner.feature.VariableFeature;
+import me.hsgamer.gamesinthebox.replacement.ReplacementRegistry;
 import me.hsgamer.gamesinthebox.util.ActionBarUtil;
 import me.hsgamer.hscore.bukkit.utils.MessageUtils;
 import me.hsgamer.minigamecore.base.Feature;
@@ -74,9 +75,14 @@ public class TemplateGameArena extends SimpleGameArena {
         ActionBarUtil.sendActionBar(uuid, finalMessage);
     }
 
+    @Override
+    protected boolean isPointChangeCoalesced() {
+        return true;
+    }
+
     @Override
     protected void onFailedToReward(@NotNull List<UUID> uuids) {
-        String notEnoughPlayerMessage = getFeature(VariableFeature.class).replace(gameLogic.getGameMessageConfig().getNotEnoughPlayerToReward());
+        String notEnoughPlayerMessage = getFeature(VariableFeature.class).render(gameLogic.getGameMessageConfig().getNotEnoughPlayerToReward());
         for (UUID uuid : uuids) {
             MessageUtils.sendMessage(uuid, notEnoughPlayerMessage);
         }
@@ -100,6 +106,14 @@ public class TemplateGameArena extends SimpleGameArena {
         return features;
     }
 
+    @Override
+    protected void registerReplacements(@NotNull ReplacementRegistry registry) {
+        super.registerReplacements(registry);
+        Optional.ofNullable(getFeature(ArenaLogicFeature.class))
+                .map(ArenaLogicFeature::getArenaLogic)
+                .ifPresent(arenaLogic -> arenaLogic.registerReplacements(registry));
+    }
+
     @Override
     public @Nullable String replace(@NotNull String input) {
         String output = super.replace(input);
@@ -19,6 +19,7 @@ import me.hsgamer.gamesinthebox.game.template.state.EndingState;
 import me.hsgamer.gamesinthebox.game.template.state.IdlingState;
 import me.hsgamer.gamesinthebox.game.template.state.InGameState;
 import me.hsgamer.gamesinthebox.game.template.state.WaitingState;
+import me.hsgamer.gamesinthebox.replacement.ReplacementRegistry;
 import me.hsgamer.hscore.common.StringReplacer;
 import me.hsgamer.minigamecore.base.Feature;
 import me.hsgamer.minigamecore.base.Initializer;
@@ -189,6 +190,16 @@ public abstract class TemplateGameArenaLogic implements Initializer, StringRepla
         return arena.getCurrentState() == EndingState.class;
     }
 
+    /**
+     * Register the replacement queries of the arena logic.
+     * The registered queries are resolved before {@link #replace(String)} and {@link #replace(String, java.util.UUID)}.
+     *
+     * @param registry the registry of the arena
+     */
+    public void registerReplacements(@NotNull ReplacementRegistry registry) {
+        // EMPTY
+    }
+
     /**
      * {@inheritDoc}
      * <p>
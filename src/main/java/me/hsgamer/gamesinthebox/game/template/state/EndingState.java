@@ -15,12 +15,15 @@
 */
 package me.hsgamer.gamesinthebox.game.template.state;
 
+import me.hsgamer.gamesinthebox.GamesInTheBox;
+import me.hsgamer.gamesinthebox.game.GameArena;
 import me.hsgamer.gamesinthebox.game.simple.feature.SimpleUpdateFeature;
 import me.hsgamer.gamesinthebox.game.template.TemplateGameArenaLogic;
 import me.hsgamer.gamesinthebox.game.template.TemplateGameLogic;
 import me.hsgamer.gamesinthebox.game.template.feature.ArenaLogicFeature;
 import me.hsgamer.gamesinthebox.game.template.feature.CooldownFeature;
 import me.hsgamer.gamesinthebox.planner.feature.PlannerFeature;
+import me.hsgamer.gamesinthebox.planner.feature.PluginFeature;
 import me.hsgamer.gamesinthebox.planner.feature.VariableFeature;
 import me.hsgamer.hscore.bukkit.utils.MessageUtils;
 import me.hsgamer.minigamecore.base.Arena;
@@ -46,7 +49,7 @@ public class EndingState implements GameState, ColoredDisplayName {
 
     @Override
     public void start(Arena arena) {
-        String endMessage = arena.getFeature(VariableFeature.class).replace(gameLogic.getGameMessageConfig().getEndBroadcast());
+        String endMessage = arena.getFeature(VariableFeature.class).render(gameLogic.getGameMessageConfig().getEndBroadcast());
         Bukkit.getOnlinePlayers().forEach(player -> MessageUtils.sendMessage(player, endMessage));
         arena.getFeature(ArenaLogicFeature.class).getArenaLogic().onEndingStart();
         arena.getFeature(CooldownFeature.class).start(this);
@@ -65,6 +68,12 @@ public class EndingState implements GameState, ColoredDisplayName {
     @Override
     public void end(Arena arena) {
         arena.getFeature(ArenaLogicFeature.class).getArenaLogic().onEndingOver();
+        if (arena instanceof GameArena) {
+            GamesInTheBox plugin = arena.getFeature(PluginFeature.class).getPlugin();
+            plugin.getPlayerStatsManager().recordGame((GameArena) arena);
+            plugin.getGameHistoryManager().recordGame((GameArena) arena);
+            plugin.getLeaderboardManager().recordGame((GameArena) arena);
+        }
         arena.getFeature(SimpleUpdateFeature.class).clearState();
         arena.getFeature(PlannerFeature.class).notifyFinished();
     }
@@ -15,6 +15,7 @@
 */
 package me.hsgamer.gamesinthebox.game.template.state;
 
+import me.hsgamer.gamesinthebox.game.feature.PointFeature;
 import me.hsgamer.gamesinthebox.game.template.TemplateGameArenaLogic;
 import me.hsgamer.gamesinthebox.game.template.TemplateGameLogic;
 import me.hsgamer.gamesinthebox.game.template.feature.ArenaLogicFeature;
@@ -44,7 +45,7 @@ public class InGameState implements GameState, ColoredDisplayName {
 
     @Override
     public void start(Arena arena) {
-        String startMessage = arena.getFeature(VariableFeature.class).replace(gameLogic.getGameMessageConfig().getStartBroadcast());
+        String startMessage = arena.getFeature(VariableFeature.class).render(gameLogic.getGameMessageConfig().getStartBroadcast());
         Bukkit.getOnlinePlayers().forEach(player -> MessageUtils.sendMessage(player, startMessage));
         arena.getFeature(ArenaLogicFeature.class).getArenaLogic().onInGameStart();
         arena.getFeature(CooldownFeature.class).start(this);
@@ -62,6 +63,7 @@ public class InGameState implements GameState, ColoredDisplayName {
 
     @Override
     public void end(Arena arena) {
+        arena.getFeature(PointFeature.class).flushPointChanges();
         arena.getFeature(ArenaLogicFeature.class).getArenaLogic().onInGameOver();
     }
 
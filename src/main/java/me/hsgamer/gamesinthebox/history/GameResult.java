@@ -0,0 +1,125 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.history;
+
+import me.hsgamer.hscore.common.Pair;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The result of a finished game
+ */
+public final class GameResult {
+    private final String planner;
+    private final String arena;
+    private final String type;
+    private final long startTime;
+    private final long endTime;
+    private final List<UUID> participants;
+    private final List<Pair<UUID, Integer>> top;
+
+    /**
+     * Create a new result
+     *
+     * @param planner      the name of the planner
+     * @param arena        the local name of the arena
+     * @param type         the game type
+     * @param startTime    the time the game started, in milliseconds
+     * @param endTime      the time the game ended, in milliseconds
+     * @param participants the players who took part in the game
+     * @param top          the final top, as pairs of the player and the point
+     */
+    public GameResult(@NotNull String planner, @NotNull String arena, @NotNull String type, long startTime, long endTime, @NotNull List<UUID> participants, @NotNull List<Pair<UUID, Integer>> top) {
+        this.planner = planner;
+        this.arena = arena;
+        this.type = type;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.participants = Collections.unmodifiableList(participants);
+        this.top = Collections.unmodifiableList(top);
+    }
+
+    /**
+     * Get the name of the planner
+     *
+     * @return the name of the planner
+     */
+    @NotNull
+    public String getPlanner() {
+        return planner;
+    }
+
+    /**
+     * Get the local name of the arena
+     *
+     * @return the local name of the arena
+     */
+    @NotNull
+    public String getArena() {
+        return arena;
+    }
+
+    /**
+     * Get the game type
+     *
+     * @return the game type
+     */
+    @NotNull
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Get the time the game started
+     *
+     * @return the time in milliseconds
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Get the time the game ended
+     *
+     * @return the time in milliseconds
+     */
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * Get the players who took part in the game
+     *
+     * @return the list of the uuids of the players
+     */
+    @NotNull
+    public List<UUID> getParticipants() {
+        return participants;
+    }
+
+    /**
+     * Get the final top
+     *
+     * @return the list of pairs of the player and the point, sorted by the top position
+     */
+    @NotNull
+    public List<Pair<UUID, Integer>> getTop() {
+        return top;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,513 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.history;
+
+import me.hsgamer.hscore.common.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * The append-only journal of {@link GameResult}.
+ * <p>
+ * The results are written to segment files in a background thread.
+ * The results appended in the same moment are written together with a single gathering write.
+ * When the active segment is larger than the segment size, a new segment is started,
+ * and when there are too many segments, the old ones are compacted into one, keeping only the latest results.
+ * <p>
+ * The latest results are also kept in memory, indexed by the player and by the arena, to answer the queries without reading the files.
+ * Each record in a segment is the length (int), the CRC32 of the payload (int) and the payload,
+ * so a partially written record at the end of a segment is detected and dropped.
+ */
+public final class GameResultJournal implements Closeable {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final File folder;
+    private final Logger logger;
+    private final long segmentSize;
+    private final int maxSegments;
+    private final int maxRecords;
+    private final ExecutorService executor;
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private final Map<UUID, Deque<Entry>> playerIndex = new HashMap<>();
+    private final Map<String, Deque<Entry>> arenaIndex = new HashMap<>();
+    private long sequence = 0;
+
+    private final List<Integer> segments = new ArrayList<>();
+    private volatile FileChannel channel;
+
+    /**
+     * Open the journal
+     *
+     * @param folder      the folder of the segments
+     * @param logger      the logger to report the errors
+     * @param segmentSize the size in bytes to start a new segment
+     * @param maxSegments the number of segments to start a compaction
+     * @param maxRecords  the number of latest results to keep
+     * @throws IOException if the segments cannot be read
+     */
+    public GameResultJournal(@NotNull File folder, @NotNull Logger logger, long segmentSize, int maxSegments, int maxRecords) throws IOException {
+        this.folder = folder;
+        this.logger = logger;
+        this.segmentSize = Math.max(1024, segmentSize);
+        this.maxSegments = Math.max(2, maxSegments);
+        this.maxRecords = Math.max(1, maxRecords);
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        load();
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "GamesInTheBox-History");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static String getArenaKey(@NotNull String planner, @Nullable String arena) {
+        String key = planner.toLowerCase(Locale.ROOT);
+        return arena == null ? key : key + ":" + arena.toLowerCase(Locale.ROOT);
+    }
+
+    private static void putString(@NotNull ByteBuffer buffer, @NotNull String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(@NotNull ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int getCrc(@NotNull ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    @NotNull
+    private static ByteBuffer encode(@NotNull Entry entry) {
+        GameResult result = entry.result;
+        byte[] planner = result.getPlanner().getBytes(StandardCharsets.UTF_8);
+        byte[] arena = result.getArena().getBytes(StandardCharsets.UTF_8);
+        byte[] type = result.getType().getBytes(StandardCharsets.UTF_8);
+        int payloadSize = 8 + 6 + planner.length + arena.length + type.length + 16
+                + 4 + result.getParticipants().size() * 16
+                + 4 + result.getTop().size() * 20;
+        ByteBuffer payload = ByteBuffer.allocate(payloadSize);
+        payload.putLong(entry.sequence);
+        putString(payload, result.getPlanner());
+        putString(payload, result.getArena());
+        putString(payload, result.getType());
+        payload.putLong(result.getStartTime());
+        payload.putLong(result.getEndTime());
+        payload.putInt(result.getParticipants().size());
+        for (UUID uuid : result.getParticipants()) {
+            payload.putLong(uuid.getMostSignificantBits());
+            payload.putLong(uuid.getLeastSignificantBits());
+        }
+        payload.putInt(result.getTop().size());
+        for (Pair<UUID, Integer> pair : result.getTop()) {
+            payload.putLong(pair.getKey().getMostSignificantBits());
+            payload.putLong(pair.getKey().getLeastSignificantBits());
+            payload.putInt(pair.getValue());
+        }
+        payload.flip();
+        ByteBuffer record = ByteBuffer.allocate(8 + payloadSize);
+        record.putInt(payloadSize);
+        record.putInt(getCrc(payload));
+        record.put(payload);
+        record.flip();
+        return record;
+    }
+
+    @NotNull
+    private static Entry decode(@NotNull ByteBuffer payload) {
+        long sequence = payload.getLong();
+        String planner = getString(payload);
+        String arena = getString(payload);
+        String type = getString(payload);
+        long startTime = payload.getLong();
+        long endTime = payload.getLong();
+        int participantCount = payload.getInt();
+        List<UUID> participants = new ArrayList<>(Math.min(participantCount, payload.remaining() / 16));
+        for (int i = 0; i < participantCount; i++) {
+            participants.add(new UUID(payload.getLong(), payload.getLong()));
+        }
+        int topCount = payload.getInt();
+        List<Pair<UUID, Integer>> top = new ArrayList<>(Math.min(topCount, payload.remaining() / 20));
+        for (int i = 0; i < topCount; i++) {
+            top.add(Pair.of(new UUID(payload.getLong(), payload.getLong()), payload.getInt()));
+        }
+        return new Entry(sequence, new GameResult(planner, arena, type, startTime, endTime, participants, top));
+    }
+
+    /**
+     * Read the records of the segment, one record at a time
+     *
+     * @param file     the segment file
+     * @param consumer the consumer of the records
+     * @return the size of the valid part of the segment
+     */
+    private static long read(@NotNull File file, @NotNull EntryConsumer consumer) throws IOException {
+        try (FileChannel readChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = readChannel.size();
+            ByteBuffer header = ByteBuffer.allocate(8);
+            ByteBuffer payload = ByteBuffer.allocate(1024);
+            long validSize = 0;
+            while (size - validSize >= 8) {
+                header.clear();
+                if (!readFully(readChannel, header, validSize)) {
+                    break;
+                }
+                header.flip();
+                int length = header.getInt();
+                int crc = header.getInt();
+                if (length < 0 || length > size - validSize - 8) {
+                    break;
+                }
+                if (payload.capacity() < length) {
+                    payload = ByteBuffer.allocate(Math.max(length, payload.capacity() * 2));
+                }
+                payload.clear();
+                payload.limit(length);
+                if (!readFully(readChannel, payload, validSize + 8)) {
+                    break;
+                }
+                payload.flip();
+                if (getCrc(payload) != crc) {
+                    break;
+                }
+                Entry entry;
+                try {
+                    entry = decode(payload);
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    break;
+                }
+                validSize += 8 + length;
+                consumer.accept(entry);
+            }
+            return validSize;
+        }
+    }
+
+    private static boolean readFully(@NotNull FileChannel readChannel, @NotNull ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = readChannel.read(buffer, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    private File getSegmentFile(int id) {
+        return new File(folder, String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private void load() throws IOException {
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    segments.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    logger.warning("Ignored the unknown file in the history folder: " + name);
+                }
+            }
+        }
+        Collections.sort(segments);
+
+        long validSize = 0;
+        for (int id : segments) {
+            validSize = read(getSegmentFile(id), entry -> {
+                if (entry.sequence > sequence) {
+                    sequence = entry.sequence;
+                    index(entry);
+                }
+            });
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(1);
+        }
+        int activeId = segments.get(segments.size() - 1);
+        channel = FileChannel.open(getSegmentFile(activeId).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() > validSize) {
+            logger.warning("Dropped the incomplete records at the end of " + getSegmentFile(activeId).getName());
+            channel.truncate(validSize);
+        }
+        channel.position(validSize);
+    }
+
+    private void index(@NotNull Entry entry) {
+        entries.addLast(entry);
+        for (UUID uuid : entry.result.getParticipants()) {
+            playerIndex.computeIfAbsent(uuid, key -> new ArrayDeque<>()).addLast(entry);
+        }
+        arenaIndex.computeIfAbsent(getArenaKey(entry.result.getPlanner(), null), key -> new ArrayDeque<>()).addLast(entry);
+        arenaIndex.computeIfAbsent(getArenaKey(entry.result.getPlanner(), entry.result.getArena()), key -> new ArrayDeque<>()).addLast(entry);
+        while (entries.size() > maxRecords) {
+            Entry oldest = entries.pollFirst();
+            for (UUID uuid : oldest.result.getParticipants()) {
+                removeFirst(playerIndex, uuid, oldest);
+            }
+            removeFirst(arenaIndex, getArenaKey(oldest.result.getPlanner(), null), oldest);
+            removeFirst(arenaIndex, getArenaKey(oldest.result.getPlanner(), oldest.result.getArena()), oldest);
+        }
+    }
+
+    private static <K> void removeFirst(@NotNull Map<K, Deque<Entry>> index, @NotNull K key, @NotNull Entry entry) {
+        Deque<Entry> deque = index.get(key);
+        if (deque == null) {
+            return;
+        }
+        if (deque.peekFirst() == entry) {
+            deque.pollFirst();
+        } else {
+            deque.remove(entry);
+        }
+        if (deque.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Append the result to the journal.
+     * The result is available to the queries immediately, and written to the disk in the background.
+     *
+     * @param result the result
+     */
+    public void append(@NotNull GameResult result) {
+        synchronized (entries) {
+            Entry entry = new Entry(++sequence, result);
+            index(entry);
+            pending.add(entry);
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private void flush() {
+        scheduled.set(false);
+        List<ByteBuffer> buffers = new ArrayList<>();
+        long size = 0;
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            ByteBuffer buffer = encode(entry);
+            size += buffer.remaining();
+            buffers.add(buffer);
+        }
+        if (buffers.isEmpty()) {
+            return;
+        }
+        try {
+            if (channel.size() > 0 && channel.size() + size > segmentSize) {
+                rotate();
+            }
+            ByteBuffer[] array = buffers.toArray(new ByteBuffer[0]);
+            long remaining = size;
+            while (remaining > 0) {
+                remaining -= channel.write(array);
+            }
+            channel.force(false);
+            if (segments.size() > maxSegments) {
+                compact();
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write the game history", e);
+        }
+    }
+
+    private void rotate() throws IOException {
+        channel.force(false);
+        channel.close();
+        int id = segments.get(segments.size() - 1) + 1;
+        segments.add(id);
+        channel = FileChannel.open(getSegmentFile(id).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Merge all segments except the active one into a single segment, dropping the results that are no longer kept
+     */
+    private void compact() throws IOException {
+        List<Integer> sealed = new ArrayList<>(segments.subList(0, segments.size() - 1));
+        long minSequence;
+        synchronized (entries) {
+            minSequence = sequence - maxRecords;
+        }
+        int targetId = sealed.get(sealed.size() - 1);
+        File tempFile = new File(folder, SEGMENT_PREFIX + targetId + ".tmp");
+        try (FileChannel tempChannel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<IOException> errors = new ArrayList<>(1);
+            for (int id : sealed) {
+                read(getSegmentFile(id), entry -> {
+                    if (entry.sequence <= minSequence || !errors.isEmpty()) {
+                        return;
+                    }
+                    ByteBuffer buffer = encode(entry);
+                    try {
+                        while (buffer.hasRemaining()) {
+                            tempChannel.write(buffer);
+                        }
+                    } catch (IOException e) {
+                        errors.add(e);
+                    }
+                });
+            }
+            if (!errors.isEmpty()) {
+                throw errors.get(0);
+            }
+            tempChannel.force(true);
+        }
+        Files.move(tempFile.toPath(), getSegmentFile(targetId).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (int id : sealed) {
+            if (id != targetId) {
+                Files.deleteIfExists(getSegmentFile(id).toPath());
+            }
+        }
+        segments.removeIf(id -> id < targetId);
+    }
+
+    @NotNull
+    private List<GameResult> getLatest(@Nullable Deque<Entry> deque, int limit) {
+        if (deque == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<GameResult> list = new ArrayList<>(Math.min(limit, deque.size()));
+        Iterator<Entry> iterator = deque.descendingIterator();
+        while (iterator.hasNext() && list.size() < limit) {
+            list.add(iterator.next().result);
+        }
+        return list;
+    }
+
+    /**
+     * Get the latest results
+     *
+     * @param limit the maximum number of results
+     * @return the results, the newest first
+     */
+    @NotNull
+    public List<GameResult> getLatestResults(int limit) {
+        synchronized (entries) {
+            return getLatest(entries, limit);
+        }
+    }
+
+    /**
+     * Get the latest results of the games that the player took part in
+     *
+     * @param uuid  the uuid of the player
+     * @param limit the maximum number of results
+     * @return the results, the newest first
+     */
+    @NotNull
+    public List<GameResult> getPlayerResults(@NotNull UUID uuid, int limit) {
+        synchronized (entries) {
+            return getLatest(playerIndex.get(uuid), limit);
+        }
+    }
+
+    /**
+     * Get the latest results of the planner or an arena of the planner
+     *
+     * @param planner the name of the planner
+     * @param arena   the local name of the arena, or null to get the results of all arenas of the planner
+     * @param limit   the maximum number of results
+     * @return the results, the newest first
+     */
+    @NotNull
+    public List<GameResult> getArenaResults(@NotNull String planner, @Nullable String arena, int limit) {
+        synchronized (entries) {
+            return getLatest(arenaIndex.get(getArenaKey(planner, arena)), limit);
+        }
+    }
+
+    /**
+     * Write the pending results and close the journal
+     *
+     * @throws IOException if the segment cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        try {
+            boolean terminated = false;
+            try {
+                terminated = executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!terminated) {
+                logger.warning("Timed out while writing the game history");
+                return;
+            }
+            if (!pending.isEmpty()) {
+                flush();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    @FunctionalInterface
+    private interface EntryConsumer {
+        void accept(@NotNull Entry entry);
+    }
+
+    private static final class Entry {
+        private final long sequence;
+        private final GameResult result;
+
+        private Entry(long sequence, @NotNull GameResult result) {
+            this.sequence = sequence;
+            this.result = result;
+        }
+    }
+}
\ No newline at end of file
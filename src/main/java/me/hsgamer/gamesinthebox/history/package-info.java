@@ -0,0 +1,4 @@
+/**
+ * Contains the journal of the results of the games
+ */
+package me.hsgamer.gamesinthebox.history;
\ No newline at end of file
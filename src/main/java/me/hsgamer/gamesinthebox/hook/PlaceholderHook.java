@@ -17,19 +17,30 @@ package me.hsgamer.gamesinthebox.hook;
 
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import me.hsgamer.gamesinthebox.GamesInTheBox;
-import me.hsgamer.gamesinthebox.planner.feature.ReplacementFeature;
 import me.hsgamer.minigamecore.base.Arena;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
- * The hook for PlaceholderAPI
+ * The hook for PlaceholderAPI.
+ * Each distinct request is parsed once into a function bound to its planner or manager,
+ * and the parsed requests are dropped when the plugin is reloaded.
+ * A request that cannot be parsed, such as one for a planner that is not loaded yet, is not kept, so it is parsed again on the next request.
+ * Only a request that starts with {@code top_} and does not name a planner is parsed as a query of the server-wide top.
  */
 public class PlaceholderHook extends PlaceholderExpansion {
+    private static final int MAX_QUERIES = 1024;
     private final GamesInTheBox plugin;
+    private final Map<String, Function<UUID, String>> queries = new ConcurrentHashMap<>();
+    private volatile long queryGeneration = -1;
 
     public PlaceholderHook(@NotNull GamesInTheBox plugin) {
         this.plugin = plugin;
@@ -64,28 +75,51 @@ public class PlaceholderHook extends PlaceholderExpansion {
         return result;
     }
 
-    @Override
-    public String onRequest(OfflinePlayer player, String params) {
+    @Nullable
+    private Function<UUID, String> parse(@NotNull String params) {
         String[] split = params.split(":", 2);
-        if (split.length == 0) {
-            return null;
-        }
         Optional<Arena> optionalPlanner = plugin.getPlannerManager().getArenaByName(split[0]);
         if (!optionalPlanner.isPresent()) {
+            if (split[0].equalsIgnoreCase("stats") && split.length > 1) {
+                String query = split[1];
+                return uuid -> plugin.getPlayerStatsManager().replace(query, uuid);
+            }
+            if (split[0].equalsIgnoreCase("leaderboard") && split.length > 1) {
+                String query = split[1];
+                return uuid -> plugin.getLeaderboardManager().replace(query, uuid);
+            }
+            if (split.length == 1 && split[0].toLowerCase(Locale.ROOT).startsWith("top_")) {
+                String query = split[0];
+                return uuid -> plugin.getGlobalLeaderboardManager().replace(query);
+            }
             return null;
         }
         Arena planner = optionalPlanner.get();
 
         if (split.length == 1) {
-            return planner.getName();
+            String name = planner.getName();
+            return uuid -> name;
         }
 
         String query = split[1];
-        ReplacementFeature feature = planner.getFeature(ReplacementFeature.class);
-        if (feature == null) {
-            return null;
-        }
+        return uuid -> plugin.getPlaceholderCacheManager().replace(planner, query, uuid);
+    }
 
-        return feature.tryReplace(query, player != null ? player.getUniqueId() : null);
+    @Override
+    public String onRequest(OfflinePlayer player, String params) {
+        long generation = plugin.getPlaceholderCacheManager().getGeneration();
+        if (generation != queryGeneration || queries.size() >= MAX_QUERIES) {
+            queries.clear();
+            queryGeneration = generation;
+        }
+        Function<UUID, String> function = queries.get(params);
+        if (function == null) {
+            function = parse(params);
+            if (function == null) {
+                return null;
+            }
+            queries.putIfAbsent(params, function);
+        }
+        return function.apply(player != null ? player.getUniqueId() : null);
     }
 }
@@ -0,0 +1,4 @@
+/**
+ * Contains the listeners of the plugin
+ */
+package me.hsgamer.gamesinthebox.listener;
\ No newline at end of file
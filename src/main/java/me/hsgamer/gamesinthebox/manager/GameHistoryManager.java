@@ -0,0 +1,138 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.manager;
+
+import me.hsgamer.gamesinthebox.GamesInTheBox;
+import me.hsgamer.gamesinthebox.config.MainConfig;
+import me.hsgamer.gamesinthebox.game.GameArena;
+import me.hsgamer.gamesinthebox.game.feature.PointFeature;
+import me.hsgamer.gamesinthebox.history.GameResult;
+import me.hsgamer.gamesinthebox.history.GameResultJournal;
+import me.hsgamer.gamesinthebox.planner.feature.GameRunnerFeature;
+import me.hsgamer.hscore.common.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+/**
+ * The manager that keeps the history of the finished games in a {@link GameResultJournal}
+ */
+public class GameHistoryManager {
+    private final GamesInTheBox plugin;
+    private final File folder;
+    private GameResultJournal journal;
+
+    /**
+     * Create a new manager
+     *
+     * @param plugin the plugin
+     */
+    public GameHistoryManager(@NotNull GamesInTheBox plugin) {
+        this.plugin = plugin;
+        this.folder = new File(plugin.getDataFolder(), "history");
+    }
+
+    /**
+     * Open the journal
+     */
+    public void init() {
+        MainConfig mainConfig = plugin.getMainConfig();
+        try {
+            journal = new GameResultJournal(folder, plugin.getLogger(), mainConfig.getHistorySegmentSize(), mainConfig.getHistoryMaxSegments(), mainConfig.getHistoryMaxRecords());
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, e, () -> "Failed to open the game history. The history will not be recorded");
+        }
+    }
+
+    /**
+     * Write the pending results and close the journal
+     */
+    public void clear() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to close the game history", e);
+        }
+        journal = null;
+    }
+
+    /**
+     * Record the result of the game in the arena
+     *
+     * @param arena the arena
+     */
+    public void recordGame(@NotNull GameArena arena) {
+        GameResultJournal currentJournal = journal;
+        if (currentJournal == null) {
+            return;
+        }
+        PointFeature pointFeature = arena.getFeature(PointFeature.class);
+        List<UUID> participants = pointFeature == null ? Collections.emptyList() : new ArrayList<>(pointFeature.getParticipants());
+        List<Pair<UUID, Integer>> top = pointFeature == null ? Collections.emptyList() : pointFeature.getTop().collect(Collectors.toList());
+        GameRunnerFeature gameRunnerFeature = arena.getPlanner().getFeature(GameRunnerFeature.class);
+        long endTime = System.currentTimeMillis();
+        long startTime = gameRunnerFeature == null || gameRunnerFeature.getStartTime() <= 0 ? endTime : gameRunnerFeature.getStartTime();
+        String type = plugin.getGameManager().getType(arena.getGame()).orElse("unknown");
+        currentJournal.append(new GameResult(arena.getPlanner().getName(), arena.getLocalName(), type, startTime, endTime, participants, top));
+    }
+
+    /**
+     * Get the latest results
+     *
+     * @param limit the maximum number of results
+     * @return the results, the newest first
+     */
+    @NotNull
+    public List<GameResult> getLatestResults(int limit) {
+        GameResultJournal currentJournal = journal;
+        return currentJournal == null ? Collections.emptyList() : currentJournal.getLatestResults(limit);
+    }
+
+    /**
+     * Get the latest results of the games that the player took part in
+     *
+     * @param uuid  the uuid of the player
+     * @param limit the maximum number of results
+     * @return the results, the newest first
+     */
+    @NotNull
+    public List<GameResult> getPlayerResults(@NotNull UUID uuid, int limit) {
+        GameResultJournal currentJournal = journal;
+        return currentJournal == null ? Collections.emptyList() : currentJournal.getPlayerResults(uuid, limit);
+    }
+
+    /**
+     * Get the latest results of the planner or an arena of the planner
+     *
+     * @param planner the name of the planner
+     * @param arena   the local name of the arena, or null to get the results of all arenas of the planner
+     * @param limit   the maximum number of results
+     * @return the results, the newest first
+     */
+    @NotNull
+    public List<GameResult> getArenaResults(@NotNull String planner, @Nullable String arena, int limit) {
+        GameResultJournal currentJournal = journal;
+        return currentJournal == null ? Collections.emptyList() : currentJournal.getArenaResults(planner, arena, limit);
+    }
+}
\ No newline at end of file
@@ -37,7 +37,7 @@ public class GameManager extends Builder<GameManager.Input, GameArena> {
      */
     @NotNull
     public FunctionElement<Input, GameArena> register(@NotNull Game game, @NotNull String... type) {
-        return register(new GameFunction(game), type);
+        return register(new GameFunction(game, type.length > 0 ? type[0] : game.getClass().getSimpleName()), type);
     }
 
     /**
@@ -91,11 +91,30 @@ public class GameManager extends Builder<GameManager.Input, GameArena> {
                 .map(gameFunction -> gameFunction.game);
     }
 
+    /**
+     * Get the main type of the {@link Game}.
+     * This is the first type that the game is registered with.
+     *
+     * @param game the game
+     * @return the type
+     */
+    @NotNull
+    public Optional<String> getType(@NotNull Game game) {
+        return getRegisteredMap().values().stream()
+                .filter(GameFunction.class::isInstance)
+                .map(GameFunction.class::cast)
+                .filter(gameFunction -> gameFunction.game == game)
+                .map(gameFunction -> gameFunction.type)
+                .findFirst();
+    }
+
     private static class GameFunction implements BiFunction<String, Input, GameArena> {
         private final Game game;
+        private final String type;
 
-        private GameFunction(@NotNull Game game) {
+        private GameFunction(@NotNull Game game, @NotNull String type) {
             this.game = game;
+            this.type = type;
         }
 
         @Override
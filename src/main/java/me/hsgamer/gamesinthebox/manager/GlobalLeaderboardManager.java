@@ -0,0 +1,258 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.manager;
+
+import me.hsgamer.gamesinthebox.GamesInTheBox;
+import me.hsgamer.gamesinthebox.game.GameArena;
+import me.hsgamer.gamesinthebox.game.feature.PointFeature;
+import me.hsgamer.gamesinthebox.planner.feature.GameRunnerFeature;
+import me.hsgamer.gamesinthebox.util.PlayerNameUtil;
+import me.hsgamer.hscore.common.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The manager that merges the live points of the running {@link GameArena} of all planners into a server-wide top.
+ * <p>
+ * The top of each arena is already sorted by its {@link PointFeature}, so the first entries of every arena are merged with a heap,
+ * which takes {@code O(k log m)} for {@code k} entries of {@code m} arenas.
+ * The running arenas are added and removed by the {@link GameRunnerFeature} when they are started and finished,
+ * and each of them marks the merged top as changed when its points are changed, so reading the top never scans the planners.
+ * The merged top is cached, and only merged again when it is read after a change.
+ * If a player has points in more than one arena, only the highest one is counted.
+ */
+public class GlobalLeaderboardManager {
+    private final GamesInTheBox plugin;
+    private final Map<GameArena, Source> sources = new ConcurrentHashMap<>();
+    private volatile boolean changed = false;
+    private volatile List<Entry> cachedTop = Collections.emptyList();
+
+    /**
+     * Create a new manager
+     *
+     * @param plugin the plugin
+     */
+    public GlobalLeaderboardManager(@NotNull GamesInTheBox plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Add the running arena to the top
+     *
+     * @param arena the arena
+     */
+    public void addSource(@NotNull GameArena arena) {
+        PointFeature pointFeature = arena.getFeature(PointFeature.class);
+        if (pointFeature == null) {
+            return;
+        }
+        Source source = new Source(arena, pointFeature);
+        if (sources.putIfAbsent(arena, source) == null) {
+            pointFeature.addListener(source);
+            changed = true;
+        }
+    }
+
+    /**
+     * Remove the arena from the top
+     *
+     * @param arena the arena
+     */
+    public void removeSource(@NotNull GameArena arena) {
+        Source source = sources.remove(arena);
+        if (source != null) {
+            source.pointFeature.removeListener(source);
+            changed = true;
+        }
+    }
+
+    /**
+     * Remove all arenas from the top
+     */
+    public void clear() {
+        new ArrayList<>(sources.keySet()).forEach(this::removeSource);
+    }
+
+    @NotNull
+    private static List<Entry> merge(@NotNull Collection<Source> sources, int limit) {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(Math.max(1, sources.size()), Comparator.comparingInt((Cursor cursor) -> cursor.current().getValue()).reversed());
+        for (Source source : sources) {
+            List<Pair<UUID, Integer>> top = source.pointFeature.getTop(limit);
+            if (!top.isEmpty()) {
+                queue.add(new Cursor(source.arena, top));
+            }
+        }
+        List<Entry> list = new ArrayList<>(limit);
+        Set<UUID> added = new HashSet<>();
+        while (list.size() < limit && !queue.isEmpty()) {
+            Cursor cursor = queue.poll();
+            Pair<UUID, Integer> pair = cursor.current();
+            if (added.add(pair.getKey())) {
+                list.add(new Entry(pair.getKey(), pair.getValue(), cursor.arena));
+            }
+            if (cursor.next()) {
+                queue.add(cursor);
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Get the server-wide top.
+     * It is merged again only if the running arenas or their points are changed since the last merge.
+     *
+     * @return the list of entries, sorted by the point
+     */
+    @NotNull
+    public List<Entry> getTop() {
+        if (!changed) {
+            return cachedTop;
+        }
+        synchronized (this) {
+            if (changed) {
+                changed = false;
+                cachedTop = merge(sources.values(), Math.max(1, plugin.getMainConfig().getLeaderboardTopSize()));
+            }
+            return cachedTop;
+        }
+    }
+
+    /**
+     * Get the entry of the server-wide top at the index
+     *
+     * @param index the index, starting from 0
+     * @return the entry, or empty if out of range
+     */
+    @NotNull
+    public Optional<Entry> getTop(int index) {
+        List<Entry> top = getTop();
+        return index >= 0 && index < top.size() ? Optional.of(top.get(index)) : Optional.empty();
+    }
+
+    /**
+     * Replace the query with the value of the server-wide top.
+     * The query should be one of {@code top_name_<n>}, {@code top_value_<n>} and {@code top_arena_<n>}.
+     *
+     * @param query the query
+     * @return the replaced value, or null if the query is invalid
+     */
+    @Nullable
+    public String replace(@NotNull String query) {
+        String lowerCase = query.toLowerCase(Locale.ROOT);
+        try {
+            if (lowerCase.startsWith("top_value_")) {
+                int index = Integer.parseInt(lowerCase.substring(10)) - 1;
+                return getTop(index).map(entry -> Integer.toString(entry.getPoint())).orElse("---");
+            } else if (lowerCase.startsWith("top_name_")) {
+                int index = Integer.parseInt(lowerCase.substring(9)) - 1;
+                return getTop(index).map(Entry::getUuid).map(PlayerNameUtil::getName).orElse("---");
+            } else if (lowerCase.startsWith("top_arena_")) {
+                int index = Integer.parseInt(lowerCase.substring(10)) - 1;
+                return getTop(index).map(Entry::getArena).map(GameArena::getName).orElse("---");
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private final class Source implements PointFeature.PointListener {
+        private final GameArena arena;
+        private final PointFeature pointFeature;
+
+        private Source(GameArena arena, PointFeature pointFeature) {
+            this.arena = arena;
+            this.pointFeature = pointFeature;
+        }
+
+        @Override
+        public void onPointUpdated(@NotNull UUID uuid, int previousPoint, int newPoint) {
+            changed = true;
+        }
+
+        @Override
+        public void onPointCleared() {
+            changed = true;
+        }
+    }
+
+    private static final class Cursor {
+        private final GameArena arena;
+        private final List<Pair<UUID, Integer>> top;
+        private int index = 0;
+
+        private Cursor(GameArena arena, List<Pair<UUID, Integer>> top) {
+            this.arena = arena;
+            this.top = top;
+        }
+
+        private Pair<UUID, Integer> current() {
+            return top.get(index);
+        }
+
+        private boolean next() {
+            index++;
+            return index < top.size();
+        }
+    }
+
+    /**
+     * An entry of the server-wide top
+     */
+    public static final class Entry {
+        private final UUID uuid;
+        private final int point;
+        private final GameArena arena;
+
+        private Entry(@NotNull UUID uuid, int point, @NotNull GameArena arena) {
+            this.uuid = uuid;
+            this.point = point;
+            this.arena = arena;
+        }
+
+        /**
+         * Get the uuid of the player
+         *
+         * @return the uuid
+         */
+        @NotNull
+        public UUID getUuid() {
+            return uuid;
+        }
+
+        /**
+         * Get the point of the player
+         *
+         * @return the point
+         */
+        public int getPoint() {
+            return point;
+        }
+
+        /**
+         * Get the arena that the player has the point in
+         *
+         * @return the arena
+         */
+        @NotNull
+        public GameArena getArena() {
+            return arena;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,377 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.manager;
+
+import me.hsgamer.gamesinthebox.GamesInTheBox;
+import me.hsgamer.gamesinthebox.util.TaskUtil;
+import me.hsgamer.hscore.bukkit.scheduler.Scheduler;
+import me.hsgamer.hscore.bukkit.scheduler.Task;
+import me.hsgamer.hscore.common.Pair;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * The manager that runs the hologram updates of all arenas in one shared timer.
+ * <p>
+ * Each update has an interval and a cost, which is the number of hologram lines it may update.
+ * A new update starts at the tick that has the least cost in its first interval, so the updates of different arenas are spread across the ticks.
+ * In each tick, the due updates are run until the line budget is used, and the rest are delayed to the next tick.
+ * The ticks are counted on every run of the timer, even when the previous run is not done and the run is skipped,
+ * so a slow run delays the updates instead of stretching their intervals.
+ * A warning is logged, at most once per minute, if an update is larger than the budget or is delayed for a whole interval.
+ * <p>
+ * An update is split into rendering and applying. The due updates of a tick are rendered in parallel on a bounded {@link ForkJoinPool},
+ * and the results are applied on the thread that owns their locations, in one task per chunk.
+ * A cancelled update is neither rendered nor applied, even if it was selected before it was cancelled.
+ */
+public class HologramUpdateManager {
+    private static final long WARNING_INTERVAL = 1200L;
+    private final GamesInTheBox plugin;
+    private final List<Handle> handles = new ArrayList<>();
+    private volatile int lineBudget = 0;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile ForkJoinPool pool;
+    private Task task;
+    private final AtomicLong tick = new AtomicLong();
+    private long lastWarningTick = -WARNING_INTERVAL;
+
+    /**
+     * Create a new manager
+     *
+     * @param plugin the plugin
+     */
+    public HologramUpdateManager(@NotNull GamesInTheBox plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Read the settings and start the timer
+     */
+    public void init() {
+        reload();
+        int threads = plugin.getMainConfig().getHologramRenderThreads();
+        if (threads <= 0) {
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        pool = new ForkJoinPool(threads);
+        task = Scheduler.plugin(plugin).async().runTaskTimer(this::run, 1L, 1L);
+    }
+
+    /**
+     * Read the settings again
+     */
+    public void reload() {
+        lineBudget = Math.max(0, plugin.getMainConfig().getHologramLineBudget());
+    }
+
+    /**
+     * Stop the timer and remove all updates.
+     * A tick that is still running renders the rest of its updates on its own thread.
+     */
+    public void clear() {
+        TaskUtil.cancelSafe(task);
+        task = null;
+        synchronized (handles) {
+            handles.forEach(handle -> handle.cancelled = true);
+            handles.clear();
+        }
+        ForkJoinPool currentPool = pool;
+        pool = null;
+        if (currentPool != null) {
+            currentPool.shutdown();
+            try {
+                if (!currentPool.awaitTermination(5, TimeUnit.SECONDS)) {
+                    plugin.getLogger().warning("The hologram renders are not finished after 5 seconds");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Get the current tick of the timer.
+     * It is increased on every run of the timer, even if the run is skipped.
+     *
+     * @return the current tick
+     */
+    public long getTick() {
+        return tick.get();
+    }
+
+    /**
+     * Register an update
+     *
+     * @param interval the interval in ticks
+     * @param cost     the number of hologram lines that the update may update
+     * @param renderer the renderer of the update, which returns the pairs of the location and the action to apply the result on the thread of the location
+     * @return the handle to cancel the update
+     */
+    @NotNull
+    public Handle register(long interval, @NotNull IntSupplier cost, @NotNull Supplier<List<Pair<Location, Runnable>>> renderer) {
+        Handle handle = new Handle(Math.max(1L, interval), cost, renderer);
+        synchronized (handles) {
+            handle.nextTick = tick.get() + 1 + findOffset(handle.interval);
+            handles.add(handle);
+        }
+        return handle;
+    }
+
+    private int findOffset(long interval) {
+        long[] loads = new long[(int) Math.min(interval, WARNING_INTERVAL)];
+        long start = tick.get() + 1;
+        long end = start + loads.length;
+        for (Handle handle : handles) {
+            long cost = Math.max(1, handle.lastCost);
+            long first = handle.nextTick;
+            if (first < start) {
+                first += (start - first + handle.interval - 1) / handle.interval * handle.interval;
+            }
+            for (long time = first; time < end; time += handle.interval) {
+                loads[(int) (time - start)] += cost;
+            }
+        }
+        int offset = 0;
+        for (int i = 1; i < loads.length; i++) {
+            if (loads[i] < loads[offset]) {
+                offset = i;
+            }
+        }
+        return offset;
+    }
+
+    @NotNull
+    private List<Pair<Location, Runnable>> render(@NotNull Handle handle) {
+        if (handle.cancelled) {
+            return Collections.emptyList();
+        }
+        List<Pair<Location, Runnable>> actions;
+        try {
+            actions = handle.renderer.get();
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "There is an error when rendering the holograms", e);
+            return Collections.emptyList();
+        }
+        List<Pair<Location, Runnable>> result = new ArrayList<>(actions.size());
+        for (Pair<Location, Runnable> pair : actions) {
+            Runnable action = pair.getValue();
+            result.add(Pair.of(pair.getKey(), () -> {
+                if (!handle.cancelled) {
+                    action.run();
+                }
+            }));
+        }
+        return result;
+    }
+
+    @NotNull
+    private List<Pair<Location, Runnable>> renderAll(@NotNull List<Handle> renderHandles) {
+        List<Pair<Location, Runnable>> actions = new ArrayList<>(renderHandles.size());
+        ForkJoinPool currentPool = pool;
+        if (currentPool == null || renderHandles.size() == 1) {
+            for (Handle handle : renderHandles) {
+                actions.addAll(render(handle));
+            }
+            return actions;
+        }
+        List<Supplier<List<Pair<Location, Runnable>>>> results = new ArrayList<>(renderHandles.size());
+        for (Handle handle : renderHandles) {
+            try {
+                ForkJoinTask<List<Pair<Location, Runnable>>> renderTask = currentPool.submit(() -> render(handle));
+                results.add(renderTask::join);
+            } catch (RejectedExecutionException e) {
+                List<Pair<Location, Runnable>> result = render(handle);
+                results.add(() -> result);
+            }
+        }
+        for (Supplier<List<Pair<Location, Runnable>>> result : results) {
+            actions.addAll(result.get());
+        }
+        return actions;
+    }
+
+    private void scheduleAll(@NotNull List<Pair<Location, Runnable>> actions) {
+        Map<ChunkKey, Pair<Location, List<Runnable>>> chunkActions = new LinkedHashMap<>();
+        for (Pair<Location, Runnable> pair : actions) {
+            Location location = pair.getKey();
+            ChunkKey key = new ChunkKey(location.getWorld(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+            chunkActions.computeIfAbsent(key, k -> Pair.of(location, new ArrayList<>())).getValue().add(pair.getValue());
+        }
+        for (Pair<Location, List<Runnable>> pair : chunkActions.values()) {
+            List<Runnable> chunkActionList = pair.getValue();
+            Scheduler.plugin(plugin).sync().runLocationTask(pair.getKey(), () -> applyAll(chunkActionList));
+        }
+    }
+
+    private void applyAll(@NotNull List<Runnable> actions) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "There is an error when updating the holograms", e);
+            }
+        }
+    }
+
+    private void run() {
+        long currentTick = tick.incrementAndGet();
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            tick(currentTick);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void tick(long currentTick) {
+        List<Handle> dueHandles = new ArrayList<>();
+        synchronized (handles) {
+            for (Handle handle : handles) {
+                if (handle.nextTick <= currentTick) {
+                    dueHandles.add(handle);
+                }
+            }
+        }
+        if (dueHandles.isEmpty()) {
+            return;
+        }
+        dueHandles.sort(Comparator.comparingLong(handle -> handle.nextTick));
+
+        int budget = lineBudget;
+        List<Handle> renderHandles = new ArrayList<>(dueHandles.size());
+        int usedLines = 0;
+        int oversizedCost = 0;
+        int lateCount = 0;
+        int slowCount = 0;
+        for (Handle handle : dueHandles) {
+            if (handle.cancelled) {
+                continue;
+            }
+            int cost = Math.max(1, handle.cost.getAsInt());
+            handle.lastCost = cost;
+            if (budget > 0 && usedLines > 0 && usedLines + cost > budget) {
+                if (currentTick - handle.nextTick >= handle.interval) {
+                    lateCount++;
+                }
+                continue;
+            }
+            if (budget > 0 && cost > budget) {
+                oversizedCost = Math.max(oversizedCost, cost);
+            }
+            if (currentTick - handle.nextTick >= handle.interval) {
+                slowCount++;
+            }
+            usedLines += cost;
+            renderHandles.add(handle);
+            synchronized (handles) {
+                handle.nextTick += handle.interval;
+                if (handle.nextTick <= currentTick) {
+                    handle.nextTick = currentTick + 1;
+                }
+            }
+        }
+
+        if (!renderHandles.isEmpty()) {
+            List<Pair<Location, Runnable>> actions = renderAll(renderHandles);
+            if (!actions.isEmpty()) {
+                scheduleAll(actions);
+            }
+        }
+
+        if ((oversizedCost > 0 || lateCount > 0 || slowCount > 0) && currentTick - lastWarningTick >= WARNING_INTERVAL) {
+            lastWarningTick = currentTick;
+            if (oversizedCost > 0) {
+                plugin.getLogger().warning("The hologram line budget (" + budget + ") is smaller than an update of " + oversizedCost + " lines. Consider increasing 'hologram.line-budget'");
+            }
+            if (lateCount > 0) {
+                plugin.getLogger().warning("The hologram line budget (" + budget + ") is too small: " + lateCount + " updates are delayed for a whole interval. Consider increasing 'hologram.line-budget'");
+            }
+            if (slowCount > 0) {
+                plugin.getLogger().warning("The hologram updates take longer than a tick: " + slowCount + " updates ran a whole interval late. Consider increasing 'hologram.render-threads' or the update intervals");
+            }
+        }
+    }
+
+    /**
+     * The handle of a registered update
+     */
+    public final class Handle {
+        private final long interval;
+        private final IntSupplier cost;
+        private final Supplier<List<Pair<Location, Runnable>>> renderer;
+        private long nextTick;
+        private volatile int lastCost = 1;
+        private volatile boolean cancelled = false;
+
+        private Handle(long interval, @NotNull IntSupplier cost, @NotNull Supplier<List<Pair<Location, Runnable>>> renderer) {
+            this.interval = interval;
+            this.cost = cost;
+            this.renderer = renderer;
+        }
+
+        /**
+         * Cancel the update
+         */
+        public void cancel() {
+            cancelled = true;
+            synchronized (handles) {
+                handles.remove(this);
+            }
+        }
+    }
+
+    /**
+     * The key of a chunk, which is always owned by one thread
+     */
+    private static final class ChunkKey {
+        private final World world;
+        private final int x;
+        private final int z;
+
+        private ChunkKey(World world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ChunkKey)) return false;
+            ChunkKey that = (ChunkKey) o;
+            return x == that.x && z == that.z && Objects.equals(world, that.world);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Objects.hashCode(world) + x) + z;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,219 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.manager;
+
+import me.hsgamer.gamesinthebox.GamesInTheBox;
+import me.hsgamer.gamesinthebox.game.GameArena;
+import me.hsgamer.gamesinthebox.game.feature.PointFeature;
+import me.hsgamer.gamesinthebox.game.point.PointSnapshot;
+import me.hsgamer.gamesinthebox.stats.RollingLeaderboard;
+import me.hsgamer.gamesinthebox.util.PlayerNameUtil;
+import me.hsgamer.gamesinthebox.util.TaskUtil;
+import me.hsgamer.hscore.bukkit.scheduler.Scheduler;
+import me.hsgamer.hscore.bukkit.scheduler.Task;
+import me.hsgamer.hscore.collections.map.CaseInsensitiveStringHashMap;
+import me.hsgamer.hscore.common.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * The manager of the {@link RollingLeaderboard} across all games.
+ * The leaderboards are fed with the final points of every game and saved to the disk, so they are kept after a restart.
+ * <p>
+ * The available leaderboards are:
+ * <ul>
+ *     <li>{@code hourly}: the last hour, in buckets of 5 minutes</li>
+ *     <li>{@code daily}: the last 24 hours, in buckets of 1 hour</li>
+ *     <li>{@code weekly}: the last 7 days, in buckets of 6 hours</li>
+ * </ul>
+ */
+public class LeaderboardManager {
+    private final GamesInTheBox plugin;
+    private final File file;
+    private final Map<String, RollingLeaderboard> leaderboards = new CaseInsensitiveStringHashMap<>();
+    private final Object saveLock = new Object();
+    private Task task;
+
+    /**
+     * Create a new manager
+     *
+     * @param plugin the plugin
+     */
+    public LeaderboardManager(@NotNull GamesInTheBox plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "leaderboards.dat");
+    }
+
+    private void addLeaderboard(@NotNull String name, long bucketDuration, int bucketCount, int topSize) {
+        leaderboards.put(name, new RollingLeaderboard(name, bucketDuration, bucketCount, topSize));
+    }
+
+    /**
+     * Create the leaderboards, load the saved buckets and start the task to move the windows
+     */
+    public void init() {
+        int topSize = Math.max(1, plugin.getMainConfig().getLeaderboardTopSize());
+        addLeaderboard("hourly", TimeUnit.MINUTES.toMillis(5), 12, topSize);
+        addLeaderboard("daily", TimeUnit.HOURS.toMillis(1), 24, topSize);
+        addLeaderboard("weekly", TimeUnit.HOURS.toMillis(6), 28, topSize);
+        load();
+        task = Scheduler.plugin(plugin).async().runTaskTimer(() -> {
+            long time = System.currentTimeMillis();
+            leaderboards.values().forEach(leaderboard -> leaderboard.advance(time));
+        }, 20L, 1200L);
+    }
+
+    /**
+     * Stop the task and save the leaderboards
+     */
+    public void clear() {
+        TaskUtil.cancelSafe(task);
+        task = null;
+        save();
+        leaderboards.clear();
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        long time = System.currentTimeMillis();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = input.readUTF();
+                RollingLeaderboard leaderboard = leaderboards.get(name);
+                if (leaderboard == null) {
+                    // The leaderboard is removed, read its buckets to skip them
+                    leaderboard = new RollingLeaderboard(name, 1, 1, 1);
+                }
+                leaderboard.read(input, time);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to load the leaderboards", e);
+        }
+    }
+
+    private void save() {
+        synchronized (saveLock) {
+            if (leaderboards.isEmpty()) {
+                return;
+            }
+            File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+            try {
+                try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                    output.writeInt(leaderboards.size());
+                    for (RollingLeaderboard leaderboard : leaderboards.values()) {
+                        output.writeUTF(leaderboard.getName());
+                        leaderboard.write(output);
+                    }
+                }
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to save the leaderboards", e);
+            }
+        }
+    }
+
+    /**
+     * Add the final points of the game in the arena to the leaderboards
+     *
+     * @param arena the arena
+     */
+    public void recordGame(@NotNull GameArena arena) {
+        PointFeature pointFeature = arena.getFeature(PointFeature.class);
+        if (pointFeature == null || leaderboards.isEmpty()) {
+            return;
+        }
+        PointSnapshot snapshot = pointFeature.getSnapshot();
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        long time = System.currentTimeMillis();
+        leaderboards.values().forEach(leaderboard -> leaderboard.add(time, snapshot));
+        Scheduler.plugin(plugin).async().runTask(this::save);
+    }
+
+    /**
+     * Get the leaderboard
+     *
+     * @param name the name of the leaderboard
+     * @return the leaderboard
+     */
+    @NotNull
+    public Optional<RollingLeaderboard> getLeaderboard(@NotNull String name) {
+        return Optional.ofNullable(leaderboards.get(name));
+    }
+
+    /**
+     * Get the names of the leaderboards
+     *
+     * @return the names
+     */
+    @NotNull
+    public Set<String> getLeaderboardNames() {
+        return Collections.unmodifiableSet(leaderboards.keySet());
+    }
+
+    /**
+     * Replace the query with the value of the leaderboard.
+     * The query should be {@code <leaderboard>:<key>}, where {@code <key>} is one of
+     * {@code top_name_<n>}, {@code top_value_<n>}, {@code point} and {@code top}.
+     *
+     * @param query the query
+     * @param uuid  the uuid of the player, or null if there is no player
+     * @return the replaced value, or null if the query is invalid
+     */
+    @Nullable
+    public String replace(@NotNull String query, @Nullable UUID uuid) {
+        String[] split = query.split(":", 2);
+        if (split.length < 2) {
+            return null;
+        }
+        RollingLeaderboard leaderboard = leaderboards.get(split[0]);
+        if (leaderboard == null) {
+            return null;
+        }
+        String key = split[1].toLowerCase(Locale.ROOT);
+        try {
+            if (key.startsWith("top_value_")) {
+                int index = Integer.parseInt(key.substring(10)) - 1;
+                return leaderboard.getTop(index).map(Pair::getValue).map(Objects::toString).orElse("---");
+            } else if (key.startsWith("top_name_")) {
+                int index = Integer.parseInt(key.substring(9)) - 1;
+                return leaderboard.getTop(index).map(Pair::getKey).map(PlayerNameUtil::getName).orElse("---");
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (uuid == null) {
+            return null;
+        }
+        if (key.equals("point")) {
+            return Integer.toString(leaderboard.getPoint(uuid));
+        } else if (key.equals("top")) {
+            return Integer.toString(leaderboard.getRank(uuid) + 1);
+        }
+        return null;
+    }
+}
\ No newline at end of file
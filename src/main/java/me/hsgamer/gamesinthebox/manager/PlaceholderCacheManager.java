@@ -0,0 +1,228 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.manager;
+
+import me.hsgamer.gamesinthebox.GamesInTheBox;
+import me.hsgamer.gamesinthebox.game.GameArena;
+import me.hsgamer.gamesinthebox.planner.Planner;
+import me.hsgamer.gamesinthebox.planner.PlannerSnapshot;
+import me.hsgamer.gamesinthebox.planner.feature.GameRunnerFeature;
+import me.hsgamer.gamesinthebox.planner.feature.ReplacementFeature;
+import me.hsgamer.hscore.common.Validate;
+import me.hsgamer.minigamecore.base.Arena;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The manager that caches the results of the replacement queries of the planners.
+ * <p>
+ * Each query belongs to a family, which is the longest configured name that the query ends with, and the family decides how long the result is kept.
+ * A negative time keeps the result until the planner changes, that is when the state of the planner or its current game arena changes,
+ * or the current game arena is changed, started or finished, as seen by the {@link PlannerSnapshot}. Any change of these also drops the results with a time.
+ * <p>
+ * A query that is shared, as told by {@link ReplacementFeature#isShared(String)}, has the same value for all players,
+ * so it is evaluated once and shared by all of them.
+ * <p>
+ * At most {@value #MAX_ENTRIES} results are kept, and the least recently used result is dropped first.
+ */
+public class PlaceholderCacheManager {
+    private static final int MAX_ENTRIES = 16384;
+    private final GamesInTheBox plugin;
+    private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final Map<String, Long> queryTimes = new ConcurrentHashMap<>();
+    private volatile List<Map.Entry<String, Long>> families;
+    private volatile long generation = 0;
+
+    /**
+     * Create a new manager
+     *
+     * @param plugin the plugin
+     */
+    public PlaceholderCacheManager(@NotNull GamesInTheBox plugin) {
+        this.plugin = plugin;
+    }
+
+    @NotNull
+    private List<Map.Entry<String, Long>> getFamilies() {
+        List<Map.Entry<String, Long>> list = families;
+        if (list == null) {
+            list = new ArrayList<>();
+            for (Map.Entry<String, String> entry : plugin.getMainConfig().getPlaceholderCacheTimes().entrySet()) {
+                long millis = Validate.getNumber(entry.getValue()).map(Number::longValue).orElse(0L);
+                list.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey().toLowerCase(Locale.ROOT), millis < 0 ? -1L : TimeUnit.MILLISECONDS.toNanos(millis)));
+            }
+            list.sort(Comparator.comparingInt((Map.Entry<String, Long> entry) -> entry.getKey().length()).reversed());
+            families = list;
+        }
+        return list;
+    }
+
+    private long getTime(@NotNull String query) {
+        return queryTimes.computeIfAbsent(query, key -> {
+            String lowerCaseQuery = key.toLowerCase(Locale.ROOT);
+            for (Map.Entry<String, Long> family : getFamilies()) {
+                String name = family.getKey();
+                if (lowerCaseQuery.equals(name) || (lowerCaseQuery.endsWith(name) && lowerCaseQuery.charAt(lowerCaseQuery.length() - name.length() - 1) == '_')) {
+                    return family.getValue();
+                }
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, plugin.getMainConfig().getPlaceholderCacheDefaultTime()));
+        });
+    }
+
+    /**
+     * Get the result of the query of the planner, from the cache if it is still valid
+     *
+     * @param planner the planner
+     * @param query   the query
+     * @param uuid    the uuid of the player, or null if there is no player
+     * @return the result
+     */
+    @Nullable
+    public String replace(@NotNull Arena planner, @NotNull String query, @Nullable UUID uuid) {
+        ReplacementFeature feature = planner.getFeature(ReplacementFeature.class);
+        if (feature == null) {
+            return null;
+        }
+        long time = getTime(query);
+        if (time == 0) {
+            return feature.tryReplace(query, uuid);
+        }
+
+        Stamp stamp = new Stamp(planner);
+        long now = System.nanoTime();
+
+        UUID keyUuid = uuid == null || feature.isShared(query) ? null : uuid;
+        Key key = new Key(planner, query, keyUuid);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null || !entry.isValid(stamp, now)) {
+            String value = keyUuid == null ? feature.replace(query) : feature.replace(query, keyUuid);
+            entry = new Entry(value, stamp, time < 0 ? Long.MAX_VALUE : now + time);
+            synchronized (entries) {
+                entries.put(key, entry);
+            }
+        }
+        return entry.value;
+    }
+
+    /**
+     * Clear the cached results and the families of the queries.
+     * Should be called when the config and the planners are reloaded.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        queryTimes.clear();
+        families = null;
+        generation++;
+    }
+
+    /**
+     * Get the generation of the cache.
+     * It is increased every time the cache is cleared, so anything that depends on the planners can be dropped.
+     *
+     * @return the generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    private static final class Key {
+        private final Arena planner;
+        private final String query;
+        private final UUID uuid;
+        private final int hash;
+
+        private Key(Arena planner, String query, UUID uuid) {
+            this.planner = planner;
+            this.query = query;
+            this.uuid = uuid;
+            this.hash = 31 * (31 * System.identityHashCode(planner) + query.hashCode()) + Objects.hashCode(uuid);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return planner == key.planner && query.equals(key.query) && Objects.equals(uuid, key.uuid);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Stamp {
+        private final Class<?> plannerState;
+        private final long runnerVersion;
+        private final Class<?> arenaState;
+
+        private Stamp(Arena planner) {
+            if (planner instanceof Planner) {
+                PlannerSnapshot snapshot = ((Planner) planner).getSnapshot();
+                this.plannerState = snapshot.getState();
+                this.runnerVersion = snapshot.getRunnerVersion();
+                this.arenaState = snapshot.getGameState();
+                return;
+            }
+            this.plannerState = planner.getCurrentState();
+            GameRunnerFeature gameRunnerFeature = planner.getFeature(GameRunnerFeature.class);
+            if (gameRunnerFeature == null) {
+                this.runnerVersion = 0;
+                this.arenaState = null;
+            } else {
+                this.runnerVersion = gameRunnerFeature.getVersion();
+                GameArena arena = gameRunnerFeature.getCurrentGameArena();
+                this.arenaState = arena == null ? null : arena.getCurrentState();
+            }
+        }
+
+        private boolean isSame(Stamp stamp) {
+            return plannerState == stamp.plannerState && runnerVersion == stamp.runnerVersion && arenaState == stamp.arenaState;
+        }
+    }
+
+    private static final class Entry {
+        private final String value;
+        private final Stamp stamp;
+        private final long expireTime;
+
+        private Entry(String value, Stamp stamp, long expireTime) {
+            this.value = value;
+            this.stamp = stamp;
+            this.expireTime = expireTime;
+        }
+
+        private boolean isValid(Stamp currentStamp, long now) {
+            return now < expireTime && stamp.isSame(currentStamp);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.manager;
+
+import me.hsgamer.gamesinthebox.GamesInTheBox;
+import me.hsgamer.gamesinthebox.util.TaskUtil;
+import me.hsgamer.hscore.bukkit.scheduler.Scheduler;
+import me.hsgamer.hscore.bukkit.scheduler.Task;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * The manager that tracks the chunks that have players in them.
+ * <p>
+ * The chunks of the online players are collected on the main thread in an interval,
+ * expanded by the view distance, and published as an immutable snapshot, so it can be read from any thread.
+ * Checking a location is then a single lookup of its chunk.
+ * It is used to skip the work for the things that no player can see, like the holograms in an empty area.
+ */
+public class PlayerChunkManager {
+    private final GamesInTheBox plugin;
+    private volatile Map<UUID, ChunkSet> chunks = Collections.emptyMap();
+    private volatile int chunkRadius = -1;
+    private Task task;
+
+    /**
+     * Create a new manager
+     *
+     * @param plugin the plugin
+     */
+    public PlayerChunkManager(@NotNull GamesInTheBox plugin) {
+        this.plugin = plugin;
+    }
+
+    private static long toKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Read the settings and start the task to collect the chunks of the players
+     */
+    public void init() {
+        int distance = plugin.getMainConfig().getHologramViewDistance();
+        chunkRadius = distance <= 0 ? -1 : (distance + 15) >> 4;
+        if (chunkRadius < 0) {
+            return;
+        }
+        long interval = Math.max(1L, plugin.getMainConfig().getHologramViewerCheckInterval());
+        task = Scheduler.plugin(plugin).sync().runTaskTimer(this::collect, 0L, interval);
+    }
+
+    /**
+     * Stop the task and remove the collected chunks
+     */
+    public void clear() {
+        TaskUtil.cancelSafe(task);
+        task = null;
+        chunkRadius = -1;
+        chunks = Collections.emptyMap();
+    }
+
+    /**
+     * Read the settings again and restart the task
+     */
+    public void reload() {
+        clear();
+        init();
+    }
+
+    private void collect() {
+        int radius = chunkRadius;
+        if (radius < 0) {
+            return;
+        }
+        Map<UUID, ChunkSet> map = new HashMap<>();
+        Map<UUID, ChunkSet> playerChunks = new HashMap<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            Location location = player.getLocation();
+            World world = location.getWorld();
+            if (world == null) {
+                continue;
+            }
+            int chunkX = location.getBlockX() >> 4;
+            int chunkZ = location.getBlockZ() >> 4;
+            if (!playerChunks.computeIfAbsent(world.getUID(), uuid -> new ChunkSet()).add(toKey(chunkX, chunkZ))) {
+                continue;
+            }
+            ChunkSet worldChunks = map.computeIfAbsent(world.getUID(), uuid -> new ChunkSet());
+            for (int x = chunkX - radius; x <= chunkX + radius; x++) {
+                for (int z = chunkZ - radius; z <= chunkZ + radius; z++) {
+                    worldChunks.add(toKey(x, z));
+                }
+            }
+        }
+        chunks = map;
+    }
+
+    /**
+     * Check if any player is near the location, by the chunks within the view distance.
+     * It is always true if the view distance is disabled.
+     *
+     * @param location the location
+     * @return true if there is
+     */
+    public boolean hasPlayerNear(@NotNull Location location) {
+        int radius = chunkRadius;
+        if (radius < 0) {
+            return true;
+        }
+        World world = location.getWorld();
+        if (world == null) {
+            return false;
+        }
+        ChunkSet worldChunks = chunks.get(world.getUID());
+        return worldChunks != null && worldChunks.contains(toKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+    }
+
+    /**
+     * The set of the chunk keys, stored in a primitive open-addressing table.
+     * It is only modified while collecting, before it is published.
+     */
+    private static final class ChunkSet {
+        private long[] keys = new long[64];
+        private boolean[] used = new boolean[64];
+        private int size = 0;
+
+        private static int index(long key, int mask) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        private boolean add(long key) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int index = index(key, mask);
+            while (used[index]) {
+                if (keys[index] == key) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+            used[index] = true;
+            keys[index] = key;
+            size++;
+            return true;
+        }
+
+        private boolean contains(long key) {
+            int mask = keys.length - 1;
+            int index = index(key, mask);
+            while (used[index]) {
+                if (keys[index] == key) {
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+            return false;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    add(oldKeys[i]);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
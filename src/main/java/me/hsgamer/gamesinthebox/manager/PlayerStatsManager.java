@@ -0,0 +1,199 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.manager;
+
+import me.hsgamer.gamesinthebox.GamesInTheBox;
+import me.hsgamer.gamesinthebox.game.GameArena;
+import me.hsgamer.gamesinthebox.game.feature.PointFeature;
+import me.hsgamer.gamesinthebox.game.point.PointSnapshot;
+import me.hsgamer.gamesinthebox.stats.PlayerStats;
+import me.hsgamer.gamesinthebox.stats.PlayerStatsStore;
+import me.hsgamer.hscore.common.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * The manager that keeps the lifetime {@link PlayerStats} of the players.
+ * The statistics are stored in a {@link PlayerStatsStore} and updated in a background thread when a game is over.
+ */
+public class PlayerStatsManager {
+    private final GamesInTheBox plugin;
+    private final File file;
+    private PlayerStatsStore store;
+    private ExecutorService executor;
+
+    /**
+     * Create a new manager
+     *
+     * @param plugin the plugin
+     */
+    public PlayerStatsManager(@NotNull GamesInTheBox plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "stats.dat");
+    }
+
+    /**
+     * Open the store
+     */
+    public void init() {
+        File folder = file.getParentFile();
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        try {
+            store = new PlayerStatsStore(file);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, e, () -> "Failed to open the player statistics. The statistics will not be recorded");
+            return;
+        }
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "GamesInTheBox-Stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Write the pending statistics and close the store
+     */
+    public void clear() {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    plugin.getLogger().warning("Timed out while writing the player statistics");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to close the player statistics", e);
+            }
+            store = null;
+        }
+    }
+
+    /**
+     * Record the result of the game in the arena.
+     * The points, the top and the participants are read immediately, and the statistics are written in the background.
+     * Every participant is counted as having played, even if they have no point.
+     *
+     * @param arena the arena
+     */
+    public void recordGame(@NotNull GameArena arena) {
+        ExecutorService currentExecutor = executor;
+        PlayerStatsStore currentStore = store;
+        if (currentExecutor == null || currentStore == null) {
+            return;
+        }
+        PointFeature pointFeature = arena.getFeature(PointFeature.class);
+        if (pointFeature == null) {
+            return;
+        }
+        Optional<String> optionalType = plugin.getGameManager().getType(arena.getGame());
+        if (!optionalType.isPresent()) {
+            return;
+        }
+        String type = optionalType.get();
+        PointSnapshot snapshot = pointFeature.getSnapshot();
+        Set<UUID> participants = pointFeature.getParticipants();
+        if (snapshot.isEmpty() && participants.isEmpty()) {
+            return;
+        }
+        List<Pair<UUID, Integer>> top = pointFeature.getTop(Math.max(1, plugin.getMainConfig().getStatsTopPlacement()));
+        Map<UUID, Integer> ranks = new HashMap<>();
+        for (int i = 0; i < top.size(); i++) {
+            ranks.put(top.get(i).getKey(), i);
+        }
+        Map<UUID, PlayerStats> results = new LinkedHashMap<>();
+        snapshot.forEach((mostBits, leastBits, point) -> {
+            UUID uuid = new UUID(mostBits, leastBits);
+            int rank = ranks.getOrDefault(uuid, -1);
+            results.put(uuid, new PlayerStats(1, rank == 0 ? 1 : 0, rank >= 0 ? 1 : 0, point));
+        });
+        for (UUID uuid : participants) {
+            results.putIfAbsent(uuid, new PlayerStats(1, 0, 0, 0));
+        }
+        currentExecutor.execute(() -> {
+            try {
+                for (Map.Entry<UUID, PlayerStats> entry : results.entrySet()) {
+                    currentStore.add(entry.getKey(), type, entry.getValue());
+                }
+                currentStore.force();
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, e, () -> "Failed to record the statistics of " + arena.getName());
+            }
+        });
+    }
+
+    /**
+     * Get the statistics of the player in a game type
+     *
+     * @param uuid the uuid of the player
+     * @param type the game type, or null to get the statistics of all game types
+     * @return the statistics
+     */
+    @NotNull
+    public PlayerStats getStats(@NotNull UUID uuid, @Nullable String type) {
+        PlayerStatsStore currentStore = store;
+        if (currentStore == null) {
+            return PlayerStats.EMPTY;
+        }
+        return type == null ? currentStore.get(uuid) : currentStore.get(uuid, type);
+    }
+
+    /**
+     * Replace the query with the statistics of the player.
+     * The query should be {@code <stat>} or {@code <stat>:<game-type>}, where {@code <stat>} is one of {@code played}, {@code wins}, {@code top} and {@code points}.
+     *
+     * @param query the query
+     * @param uuid  the uuid of the player
+     * @return the replaced value, or null if the query is invalid
+     */
+    @Nullable
+    public String replace(@NotNull String query, @Nullable UUID uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        String[] split = query.split(":", 2);
+        PlayerStats stats = getStats(uuid, split.length > 1 ? split[1] : null);
+        switch (split[0].toLowerCase(Locale.ROOT)) {
+            case "played":
+                return Integer.toString(stats.getGamesPlayed());
+            case "wins":
+                return Integer.toString(stats.getWins());
+            case "top":
+                return Integer.toString(stats.getTopPlacements());
+            case "points":
+                return Long.toString(stats.getTotalPoints());
+            default:
+                return null;
+        }
+    }
+}
\ No newline at end of file
@@ -95,7 +95,10 @@ public abstract class DelayedGamePicker implements GamePicker {
     @Override
     public String replace(@NotNull String input) {
         if (input.equalsIgnoreCase("time_left")) {
-            return TimeUtil.formatStandardTime(Math.max(0, nextPickTime - System.currentTimeMillis()));
+            return TimeUtil.format(nextPickTime - System.currentTimeMillis());
+        }
+        if (input.regionMatches(true, 0, "time_left_", 0, 10)) {
+            return TimeUtil.format(input.substring(10), nextPickTime - System.currentTimeMillis());
         }
         return null;
     }
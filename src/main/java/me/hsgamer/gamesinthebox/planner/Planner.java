@@ -15,21 +15,18 @@
 */
 package me.hsgamer.gamesinthebox.planner;
 
-import me.hsgamer.gamesinthebox.game.Game;
-import me.hsgamer.gamesinthebox.game.GameArena;
 import me.hsgamer.gamesinthebox.manager.PlannerManager;
 import me.hsgamer.gamesinthebox.planner.feature.*;
 import me.hsgamer.gamesinthebox.planner.state.IdlingState;
-import me.hsgamer.gamesinthebox.util.GameUtil;
-import me.hsgamer.hscore.bukkit.utils.ColorUtils;
-import me.hsgamer.hscore.common.StringReplacer;
+import me.hsgamer.gamesinthebox.replacement.ReplacementRegistry;
+import me.hsgamer.gamesinthebox.replacement.VersionedStringReplacer;
 import me.hsgamer.minigamecore.base.Feature;
 import me.hsgamer.minigamecore.bukkit.hscore.HSCoreBukkitArena;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * The planner. It will pick a game and run it.
@@ -41,10 +38,20 @@ import java.util.Optional;
  *     <li>{@code game_local_name}: the local name of the current game</li>
  *     <li>{@code game_state}: the state of the planner</li>
  * </ul>
+ * The queries of the states and the current game are read from the {@link PlannerSnapshot}.
  */
-public class Planner extends HSCoreBukkitArena implements StringReplacer {
+public class Planner extends HSCoreBukkitArena implements VersionedStringReplacer {
+    private final ReplacementRegistry replacementRegistry = new ReplacementRegistry();
+    private final ThreadLocal<PlannerSnapshot> pinnedSnapshot = new ThreadLocal<>();
+    private volatile PlannerSnapshot snapshot = PlannerSnapshot.EMPTY;
+
     public Planner(@NotNull String name, @NotNull PlannerManager arenaManager) {
         super(name, arenaManager);
+        replacementRegistry.register("name", this::getName, () -> 0L);
+        replacementRegistry.register("game_name", () -> snapshot.getGameName(), () -> snapshot.getStateVersion());
+        replacementRegistry.register("game_local_name", () -> snapshot.getGameLocalName(), () -> snapshot.getStateVersion());
+        replacementRegistry.register("state", () -> snapshot.getStateName(), () -> snapshot.getStateVersion());
+        replacementRegistry.register("game_state", () -> snapshot.getGameStateName(), () -> snapshot.getStateVersion());
     }
 
     @Override
@@ -64,33 +71,59 @@ public class Planner extends HSCoreBukkitArena implements StringReplacer {
         setNextState(IdlingState.class);
     }
 
+    /**
+     * Get the latest snapshot of the planner, published by {@link #updateSnapshot()}.
+     * If a snapshot is pinned by {@link #withSnapshot(Supplier)} on the current thread, that one is returned instead.
+     *
+     * @return the snapshot
+     */
+    @NotNull
+    public PlannerSnapshot getSnapshot() {
+        PlannerSnapshot pinned = pinnedSnapshot.get();
+        return pinned != null ? pinned : snapshot;
+    }
+
+    /**
+     * Run the supplier with the current snapshot pinned, so every call of {@link #getSnapshot()} in the supplier,
+     * on the same thread, returns the same snapshot
+     *
+     * @param supplier the supplier
+     * @param <T>      the type of the result
+     * @return the result of the supplier
+     */
+    public <T> T withSnapshot(@NotNull Supplier<T> supplier) {
+        if (pinnedSnapshot.get() != null) {
+            return supplier.get();
+        }
+        pinnedSnapshot.set(getSnapshot());
+        try {
+            return supplier.get();
+        } finally {
+            pinnedSnapshot.remove();
+        }
+    }
+
+    /**
+     * Capture and publish a new snapshot of the planner.
+     * This is called by the states of the planner on every update, so it is the only writer of the snapshot.
+     */
+    public void updateSnapshot() {
+        snapshot = PlannerSnapshot.capture(this, snapshot);
+    }
+
     @Override
     public String replace(@NotNull String input) {
-        switch (input.toLowerCase()) {
-            case "name":
-                return getName();
-            case "game_name":
-                return Optional.ofNullable(getFeature(GameRunnerFeature.class))
-                        .map(GameRunnerFeature::getCurrentGameArena)
-                        .map(GameArena::getGame)
-                        .map(Game::getDisplayName)
-                        .map(ColorUtils::colorize)
-                        .orElse("");
-            case "game_local_name":
-                return Optional.ofNullable(getFeature(GameRunnerFeature.class))
-                        .map(GameRunnerFeature::getCurrentGameArena)
-                        .map(GameArena::getLocalName)
-                        .orElse("");
-            case "state":
-                return GameUtil.getState(this);
-            case "game_state":
-                return Optional.ofNullable(getFeature(GameRunnerFeature.class))
-                        .map(GameRunnerFeature::getCurrentGameArena)
-                        .map(GameUtil::getState)
-                        .orElse("");
-            default:
-                return null;
-        }
+        return replacementRegistry.replace(input);
+    }
+
+    @Override
+    public long getVersion(@NotNull String query) {
+        return replacementRegistry.getVersion(query);
+    }
+
+    @Override
+    public boolean isShared(@NotNull String query) {
+        return replacementRegistry.isShared(query);
     }
 
     @Override
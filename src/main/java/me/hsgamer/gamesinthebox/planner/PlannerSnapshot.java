@@ -0,0 +1,321 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.planner;
+
+import me.hsgamer.gamesinthebox.game.GameArena;
+import me.hsgamer.gamesinthebox.game.feature.PointFeature;
+import me.hsgamer.gamesinthebox.game.feature.TopFeature;
+import me.hsgamer.gamesinthebox.game.point.PointSnapshot;
+import me.hsgamer.gamesinthebox.planner.feature.GameRunnerFeature;
+import me.hsgamer.gamesinthebox.util.GameUtil;
+import me.hsgamer.hscore.bukkit.utils.ColorUtils;
+import me.hsgamer.hscore.common.Pair;
+import me.hsgamer.minigamecore.implementation.feature.TimerFeature;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * An immutable view of a {@link Planner} and its current {@link GameArena}.
+ * The states of the planner capture and publish a snapshot on every update, and {@link Planner#getSnapshot()} only returns the published one,
+ * so the readers never touch the live features and see the values as they were at the last update of the planner.
+ * <p>
+ * The parts that did not change since the previous snapshot, like the points and the top, are shared with it.
+ */
+public final class PlannerSnapshot {
+    /**
+     * The empty snapshot, used before the first tick of the planner
+     */
+    public static final PlannerSnapshot EMPTY = new PlannerSnapshot();
+
+    private final long time;
+    private final Class<?> state;
+    private final String stateName;
+    private final long runnerVersion;
+    private final long stateVersion;
+    private final GameArena game;
+    private final boolean finished;
+    private final String gameName;
+    private final String gameLocalName;
+    private final Class<?> gameState;
+    private final String gameStateName;
+    private final long timeLeft;
+    private final long topVersion;
+    private final TopFeature.Top top;
+    private final PointFeature pointFeature;
+    private final long pointVersion;
+    private final PointSnapshot points;
+
+    private PlannerSnapshot() {
+        this.time = 0;
+        this.state = null;
+        this.stateName = "";
+        this.runnerVersion = -1;
+        this.stateVersion = 0;
+        this.game = null;
+        this.finished = true;
+        this.gameName = "";
+        this.gameLocalName = "";
+        this.gameState = null;
+        this.gameStateName = "";
+        this.timeLeft = 0;
+        this.topVersion = 0;
+        this.top = TopFeature.Top.EMPTY;
+        this.pointFeature = null;
+        this.pointVersion = -1;
+        this.points = PointSnapshot.EMPTY;
+    }
+
+    private PlannerSnapshot(@NotNull Planner planner, @NotNull PlannerSnapshot previous) {
+        this.time = System.currentTimeMillis();
+        this.state = planner.getCurrentState();
+        this.stateName = GameUtil.getState(planner);
+
+        GameRunnerFeature gameRunnerFeature = planner.getFeature(GameRunnerFeature.class);
+        this.runnerVersion = gameRunnerFeature.getVersion();
+        this.game = gameRunnerFeature.getCurrentGameArena();
+        this.finished = gameRunnerFeature.isFinished();
+        this.gameState = game == null ? null : game.getCurrentState();
+        boolean stateChanged = state != previous.state || runnerVersion != previous.runnerVersion || gameState != previous.gameState;
+        this.stateVersion = stateChanged ? previous.stateVersion + 1 : previous.stateVersion;
+        if (game == null) {
+            this.gameName = "";
+            this.gameLocalName = "";
+            this.gameStateName = "";
+            this.timeLeft = 0;
+            this.topVersion = previous.top.getEntries().isEmpty() ? previous.topVersion : previous.topVersion + 1;
+            this.top = TopFeature.Top.EMPTY;
+            this.pointFeature = null;
+            this.pointVersion = -1;
+            this.points = PointSnapshot.EMPTY;
+            return;
+        }
+
+        boolean sameGame = previous.game == game && previous.runnerVersion == runnerVersion;
+        this.gameName = sameGame ? previous.gameName : ColorUtils.colorize(game.getGame().getDisplayName());
+        this.gameLocalName = game.getLocalName();
+        this.gameStateName = sameGame && previous.gameState == gameState ? previous.gameStateName : GameUtil.getState(game);
+
+        TimerFeature timerFeature = game.getFeature(TimerFeature.class);
+        this.timeLeft = timerFeature == null ? 0 : Math.max(0, timerFeature.getDuration());
+
+        TopFeature topFeature = game.getFeature(TopFeature.class);
+        TopFeature.Top currentTop = topFeature == null ? TopFeature.Top.EMPTY : topFeature.getCurrent();
+        this.topVersion = currentTop == previous.top ? previous.topVersion : previous.topVersion + 1;
+        this.top = currentTop;
+
+        this.pointFeature = game.getFeature(PointFeature.class);
+        if (pointFeature == null) {
+            this.pointVersion = -1;
+            this.points = PointSnapshot.EMPTY;
+        } else {
+            this.pointVersion = pointFeature.getVersion();
+            this.points = previous.pointFeature == pointFeature && previous.pointVersion == pointVersion ? previous.points : pointFeature.getSnapshot();
+        }
+    }
+
+    /**
+     * Capture the snapshot of the planner
+     *
+     * @param planner  the planner
+     * @param previous the previous snapshot of the planner, to share the unchanged parts
+     * @return the snapshot
+     */
+    @NotNull
+    static PlannerSnapshot capture(@NotNull Planner planner, @NotNull PlannerSnapshot previous) {
+        return new PlannerSnapshot(planner, previous);
+    }
+
+    /**
+     * Get the time the snapshot was taken
+     *
+     * @return the time in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Get the state of the planner
+     *
+     * @return the class of the state, or null if the planner has no state
+     */
+    @Nullable
+    public Class<?> getState() {
+        return state;
+    }
+
+    /**
+     * Get the display name of the state of the planner
+     *
+     * @return the display name
+     */
+    @NotNull
+    public String getStateName() {
+        return stateName;
+    }
+
+    /**
+     * Get the version of the {@link GameRunnerFeature} of the planner
+     *
+     * @return the version
+     * @see GameRunnerFeature#getVersion()
+     */
+    public long getRunnerVersion() {
+        return runnerVersion;
+    }
+
+    /**
+     * Get the version of the states of the planner.
+     * It is increased every time the state of the planner or its current game arena changes,
+     * or the current game arena is changed, started or finished.
+     *
+     * @return the version
+     */
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
+    /**
+     * Get the current game arena
+     *
+     * @return the game arena, or null if there is none
+     */
+    @Nullable
+    public GameArena getGame() {
+        return game;
+    }
+
+    /**
+     * Check if the current game arena is finished
+     *
+     * @return true if it is
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Get the colorized display name of the current game
+     *
+     * @return the display name, or an empty string if there is no game arena
+     */
+    @NotNull
+    public String getGameName() {
+        return gameName;
+    }
+
+    /**
+     * Get the local name of the current game arena
+     *
+     * @return the local name, or an empty string if there is no game arena
+     */
+    @NotNull
+    public String getGameLocalName() {
+        return gameLocalName;
+    }
+
+    /**
+     * Get the state of the current game arena
+     *
+     * @return the class of the state, or null if there is none
+     */
+    @Nullable
+    public Class<?> getGameState() {
+        return gameState;
+    }
+
+    /**
+     * Get the display name of the state of the current game arena
+     *
+     * @return the display name, or an empty string if there is no game arena
+     */
+    @NotNull
+    public String getGameStateName() {
+        return gameStateName;
+    }
+
+    /**
+     * Get the time left of the current game arena when the snapshot was taken
+     *
+     * @return the time left in milliseconds
+     */
+    public long getTimeLeft() {
+        return timeLeft;
+    }
+
+    /**
+     * Get the version of the top.
+     * It is increased every time the top in the snapshot is different from the previous one.
+     *
+     * @return the version
+     */
+    public long getTopVersion() {
+        return topVersion;
+    }
+
+    /**
+     * Get the top of the current game arena
+     *
+     * @return the top
+     */
+    @NotNull
+    public List<Pair<UUID, String>> getTop() {
+        return top.getEntries();
+    }
+
+    /**
+     * Get the entry of the top at the index
+     *
+     * @param index the index, starting from 0
+     * @return the pair of the uuid and the value, or empty if out of range
+     */
+    @NotNull
+    public Optional<Pair<UUID, String>> getTop(int index) {
+        return top.get(index);
+    }
+
+    /**
+     * Get the index of the player in the top
+     *
+     * @param uuid the uuid of the player
+     * @return the index, starting from 0, or -1 if the player is not in the top
+     */
+    public int getTopIndex(@NotNull UUID uuid) {
+        return top.getIndex(uuid);
+    }
+
+    /**
+     * Get the points of the players of the current game arena
+     *
+     * @return the points
+     */
+    @NotNull
+    public PointSnapshot getPoints() {
+        return points;
+    }
+
+    /**
+     * Get the point of the player in the current game arena
+     *
+     * @param uuid the uuid of the player
+     * @return the point
+     */
+    public int getPoint(@NotNull UUID uuid) {
+        return points.get(uuid);
+    }
+}
\ No newline at end of file
@@ -17,16 +17,22 @@ package me.hsgamer.gamesinthebox.planner.feature;
 
 import me.hsgamer.gamesinthebox.game.GameArena;
 import me.hsgamer.gamesinthebox.game.GameArenaAction;
+import me.hsgamer.gamesinthebox.manager.GlobalLeaderboardManager;
 import me.hsgamer.minigamecore.base.Feature;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * The {@link Feature} that handles the operations of the {@link GameArena}
+ * The {@link Feature} that handles the operations of the {@link GameArena}.
+ * The started {@link GameArena} is added to the {@link GlobalLeaderboardManager} until it is finished.
  */
 public class GameRunnerFeature implements Feature {
+    private final AtomicLong version = new AtomicLong();
     private GameArena currentGameArena;
     private boolean isFinished = true;
+    private long startTime = 0;
 
     /**
      * Get the current {@link GameArena}
@@ -45,6 +51,7 @@ public class GameRunnerFeature implements Feature {
      */
     public void setCurrentGameArena(@Nullable GameArena currentGameArena) {
         this.currentGameArena = currentGameArena;
+        version.incrementAndGet();
     }
 
     /**
@@ -54,6 +61,9 @@ public class GameRunnerFeature implements Feature {
         if (currentGameArena == null || !isFinished) return;
         currentGameArena.start();
         isFinished = false;
+        startTime = System.currentTimeMillis();
+        version.incrementAndGet();
+        getGlobalLeaderboardManager(currentGameArena).addSource(currentGameArena);
     }
 
     /**
@@ -63,6 +73,8 @@ public class GameRunnerFeature implements Feature {
         if (currentGameArena == null || isFinished) return;
         currentGameArena.end();
         isFinished = true;
+        version.incrementAndGet();
+        getGlobalLeaderboardManager(currentGameArena).removeSource(currentGameArena);
     }
 
     /**
@@ -81,6 +93,15 @@ public class GameRunnerFeature implements Feature {
      */
     public void setFinished() {
         isFinished = true;
+        version.incrementAndGet();
+        if (currentGameArena != null) {
+            getGlobalLeaderboardManager(currentGameArena).removeSource(currentGameArena);
+        }
+    }
+
+    @NotNull
+    private static GlobalLeaderboardManager getGlobalLeaderboardManager(@NotNull GameArena arena) {
+        return arena.getFeature(PluginFeature.class).getPlugin().getGlobalLeaderboardManager();
     }
 
     /**
@@ -91,4 +112,23 @@ public class GameRunnerFeature implements Feature {
     public boolean isFinished() {
         return isFinished;
     }
+
+    /**
+     * Get the time the current {@link GameArena} was started
+     *
+     * @return the time in milliseconds, or 0 if no arena was started
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Get the version of the runner.
+     * It is increased every time the current {@link GameArena} is changed, started or finished.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version.get();
+    }
 }
@@ -16,21 +16,34 @@
 package me.hsgamer.gamesinthebox.planner.feature;
 
 import me.hsgamer.gamesinthebox.planner.Planner;
+import me.hsgamer.gamesinthebox.planner.PlannerSnapshot;
+import me.hsgamer.gamesinthebox.replacement.CompositeVersion;
+import me.hsgamer.gamesinthebox.replacement.ReplacementRegistry;
+import me.hsgamer.gamesinthebox.replacement.ReplacementTable;
+import me.hsgamer.gamesinthebox.replacement.VersionedStringReplacer;
 import me.hsgamer.hscore.common.StringReplacer;
 import me.hsgamer.minigamecore.base.Feature;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.function.BiFunction;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * The {@link Feature} that handles the replacement.
  * The replacement query will be in the format of {@code [prefix]_[name]}.
  * The prefix can be {@code game}, {@code picker} or {@code planner}.
+ * The prefixes are dispatched by a {@link ReplacementRegistry}, so the query is only parsed once.
  */
-public class ReplacementFeature implements Feature, StringReplacer {
+public class ReplacementFeature implements Feature, VersionedStringReplacer {
+    private static final int MAX_GAME_VERSIONS = 4096;
     private final Planner planner;
+    private final ReplacementRegistry registry = new ReplacementRegistry();
+    private final Map<String, CompositeVersion> gameVersions = new ConcurrentHashMap<>();
 
     /**
      * Create a new instance
@@ -41,39 +54,98 @@ public class ReplacementFeature implements Feature, StringReplacer {
         this.planner = planner;
     }
 
-    private String query(String query, BiFunction<StringReplacer, String, String> function) {
-        String name = null;
-        StringReplacer replacer = null;
-
-        String lowerCaseQuery = query.toLowerCase();
-        if (lowerCaseQuery.startsWith("game_")) {
-            name = query.substring(5);
-            replacer = planner.getFeature(GameRunnerFeature.class).getCurrentGameArena();
-        } else if (lowerCaseQuery.startsWith("picker_")) {
-            name = query.substring(7);
-            replacer = planner.getFeature(GamePickerFeature.class).getGamePicker();
-        } else if (lowerCaseQuery.startsWith("planner_")) {
-            name = query.substring(8);
-            replacer = planner;
-        }
+    @Override
+    public void init() {
+        registry.registerPrefix("game_", Function.identity(), (name, uuid) -> replace(planner.getSnapshot().getGame(), name, uuid), name -> {
+            PlannerSnapshot snapshot = planner.getSnapshot();
+            long version = getVersion(snapshot.getGame(), name);
+            if (version == UNVERSIONED) {
+                return UNVERSIONED;
+            }
+            if (gameVersions.size() >= MAX_GAME_VERSIONS) {
+                gameVersions.clear();
+            }
+            return gameVersions.computeIfAbsent(name, key -> new CompositeVersion()).get(version, snapshot.getRunnerVersion());
+        }, name -> isShared(planner.getSnapshot().getGame(), name));
+        registry.registerPrefix("picker_", Function.identity(), (name, uuid) -> replace(planner.getFeature(GamePickerFeature.class).getGamePicker(), name, uuid), name -> getVersion(planner.getFeature(GamePickerFeature.class).getGamePicker(), name), name -> isShared(planner.getFeature(GamePickerFeature.class).getGamePicker(), name));
+        registry.registerPrefix("planner_", Function.identity(), (name, uuid) -> replace(planner, name, uuid), name -> getVersion(planner, name), name -> isShared(planner, name));
+    }
 
-        if (name == null) {
-            name = "";
-        }
+    @Override
+    public void clear() {
+        registry.clear();
+        gameVersions.clear();
+    }
+
+    @Nullable
+    private static String replace(@Nullable StringReplacer replacer, @NotNull String name, @Nullable UUID uuid) {
         if (replacer == null) {
-            replacer = StringReplacer.DUMMY;
+            return null;
         }
+        return uuid == null ? replacer.replace(name) : replacer.replace(name, uuid);
+    }
+
+    private static long getVersion(@Nullable StringReplacer replacer, @NotNull String name) {
+        if (replacer instanceof VersionedStringReplacer) {
+            return ((VersionedStringReplacer) replacer).getVersion(name);
+        }
+        return UNVERSIONED;
+    }
 
-        return function.apply(replacer, name);
+    private static boolean isShared(@Nullable StringReplacer replacer, @NotNull String name) {
+        return replacer instanceof VersionedStringReplacer && ((VersionedStringReplacer) replacer).isShared(name);
+    }
+
+    @Override
+    public long getVersion(@NotNull String query) {
+        return registry.getVersion(query);
+    }
+
+    @Override
+    public boolean isShared(@NotNull String query) {
+        return registry.isShared(query);
     }
 
     @Override
     public @Nullable String replace(@NotNull String query) {
-        return query(query, StringReplacer::replace);
+        return registry.replace(query);
     }
 
     @Override
     public @Nullable String replace(@NotNull String original, @NotNull UUID uuid) {
-        return query(original, (replacementHandler, name) -> replacementHandler.replace(name, uuid));
+        return registry.replace(original, uuid);
+    }
+
+    /**
+     * Replace the queries for all the players at once.
+     * A query that is shared, as told by {@link #isShared(String)}, is evaluated once for all players,
+     * the other queries are evaluated for each player through the cached resolution of the registry.
+     * All queries are resolved against the same {@link PlannerSnapshot}, so the values are consistent with each other.
+     *
+     * @param queries the queries
+     * @param uuids   the uuids of the players
+     * @return the table of the values
+     */
+    @NotNull
+    public ReplacementTable replaceAll(@NotNull List<String> queries, @NotNull List<UUID> uuids) {
+        return planner.withSnapshot(() -> replaceAllPinned(queries, uuids));
+    }
+
+    @NotNull
+    private ReplacementTable replaceAllPinned(@NotNull List<String> queries, @NotNull List<UUID> uuids) {
+        String[][] values = new String[queries.size()][];
+        for (int i = 0; i < queries.size(); i++) {
+            String query = queries.get(i);
+            String[] row = new String[uuids.size()];
+            if (registry.isShared(query)) {
+                Arrays.fill(row, registry.replace(query));
+            } else {
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = registry.replace(query, uuids.get(j));
+                }
+            }
+            values[i] = row;
+        }
+        return new ReplacementTable(queries, uuids, values);
     }
 }
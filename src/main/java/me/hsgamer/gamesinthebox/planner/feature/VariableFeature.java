@@ -16,19 +16,28 @@
 package me.hsgamer.gamesinthebox.planner.feature;
 
 import me.hsgamer.gamesinthebox.planner.Planner;
+import me.hsgamer.gamesinthebox.planner.template.VariableTemplate;
+import me.hsgamer.gamesinthebox.replacement.VersionedStringReplacer;
 import me.hsgamer.hscore.common.StringReplacer;
 import me.hsgamer.hscore.variable.VariableManager;
 import me.hsgamer.minigamecore.base.Feature;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * The {@link Feature} for replacing variables
+ * The {@link Feature} for replacing variables.
+ * The strings that are rendered many times should be compiled to {@link VariableTemplate} with {@link #compile(String)},
+ * so they are only parsed and colorized once.
  */
 public class VariableFeature implements Feature, StringReplacer {
     private final Planner planner;
     private final VariableManager variableManager;
+    private final Map<String, VariableTemplate> templates = new ConcurrentHashMap<>();
+    private ReplacementFeature replacementFeature;
 
     /**
      * Create a new {@link VariableFeature}
@@ -42,10 +51,15 @@ public class VariableFeature implements Feature, StringReplacer {
 
     @Override
     public void postInit() {
-        ReplacementFeature replacementFeature = planner.getFeature(ReplacementFeature.class);
+        replacementFeature = planner.getFeature(ReplacementFeature.class);
         variableManager.register("", replacementFeature);
     }
 
+    @Override
+    public void clear() {
+        templates.clear();
+    }
+
     @Override
     public @NotNull String replace(@NotNull String original) {
         return variableManager.setVariables(original, null);
@@ -55,4 +69,71 @@ public class VariableFeature implements Feature, StringReplacer {
     public @NotNull String replace(@NotNull String original, @NotNull UUID uuid) {
         return variableManager.setVariables(original, uuid);
     }
+
+    /**
+     * Compile the string to a template.
+     * The templates are cached by the string.
+     *
+     * @param original the string
+     * @return the template
+     */
+    @NotNull
+    public VariableTemplate compile(@NotNull String original) {
+        return templates.computeIfAbsent(original, VariableTemplate::compile);
+    }
+
+    @Nullable
+    private String resolve(@NotNull String variable, @Nullable UUID uuid) {
+        String value = uuid == null ? replacementFeature.replace(variable) : replacementFeature.replace(variable, uuid);
+        if (value != null && value.indexOf('{') >= 0) {
+            value = variableManager.setVariables(value, uuid);
+        }
+        return value;
+    }
+
+    /**
+     * Get the version of the value of the variable
+     *
+     * @param variable the variable
+     * @return the version, or {@link VersionedStringReplacer#UNVERSIONED} if the changes of the variable are not tracked
+     * @see VersionedStringReplacer#getVersion(String)
+     */
+    public long getVersion(@NotNull String variable) {
+        return replacementFeature.getVersion(variable);
+    }
+
+    /**
+     * Render the template
+     *
+     * @param template the template
+     * @return the rendered and colorized string
+     */
+    @NotNull
+    public String render(@NotNull VariableTemplate template) {
+        return template.render(variable -> resolve(variable, null));
+    }
+
+    /**
+     * Render the template for the player
+     *
+     * @param template the template
+     * @param uuid     the uuid of the player
+     * @return the rendered and colorized string
+     */
+    @NotNull
+    public String render(@NotNull VariableTemplate template, @NotNull UUID uuid) {
+        return template.render(variable -> resolve(variable, uuid));
+    }
+
+    /**
+     * Compile and render the string
+     *
+     * @param original the string
+     * @return the rendered and colorized string
+     * @see #compile(String)
+     */
+    @NotNull
+    public String render(@NotNull String original) {
+        return render(compile(original));
+    }
 }
@@ -19,6 +19,7 @@ import me.hsgamer.gamesinthebox.GamesInTheBox;
 import me.hsgamer.gamesinthebox.game.GameArena;
 import me.hsgamer.gamesinthebox.planner.feature.GamePickerFeature;
 import me.hsgamer.gamesinthebox.planner.feature.GameRunnerFeature;
+import me.hsgamer.gamesinthebox.planner.feature.PlannerFeature;
 import me.hsgamer.minigamecore.base.Arena;
 import me.hsgamer.minigamecore.base.GameState;
 import me.hsgamer.minigamecore.bukkit.extra.ColoredDisplayName;
@@ -41,6 +42,7 @@ public class IdlingState implements GameState, ColoredDisplayName {
 
     @Override
     public void update(Arena arena) {
+        arena.getFeature(PlannerFeature.class).getPlanner().updateSnapshot();
         if (arena.getFeature(GamePickerFeature.class).canPick()) {
             arena.setNextState(ListeningState.class);
         }
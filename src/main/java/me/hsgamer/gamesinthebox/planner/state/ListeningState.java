@@ -17,6 +17,7 @@ package me.hsgamer.gamesinthebox.planner.state;
 
 import me.hsgamer.gamesinthebox.GamesInTheBox;
 import me.hsgamer.gamesinthebox.planner.feature.GameRunnerFeature;
+import me.hsgamer.gamesinthebox.planner.feature.PlannerFeature;
 import me.hsgamer.minigamecore.base.Arena;
 import me.hsgamer.minigamecore.base.GameState;
 import me.hsgamer.minigamecore.bukkit.extra.ColoredDisplayName;
@@ -44,6 +45,7 @@ public class ListeningState implements GameState, ColoredDisplayName {
 
     @Override
     public void update(Arena arena) {
+        arena.getFeature(PlannerFeature.class).getPlanner().updateSnapshot();
         if (arena.getFeature(GameRunnerFeature.class).isFinished()) {
             arena.setNextState(IdlingState.class);
         }
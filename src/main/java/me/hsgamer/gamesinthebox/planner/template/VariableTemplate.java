@@ -0,0 +1,154 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.planner.template;
+
+import me.hsgamer.hscore.bukkit.utils.ColorUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A string with variables in the format {@code {variable}}, parsed once into the literal parts and the variable names.
+ * The literal parts are colorized when the template is compiled,
+ * so rendering the template only resolves the variables and colorizes the values that have color codes.
+ * A color code split between a literal part and a value, such as {@code &{color}}, is not translated.
+ */
+public final class VariableTemplate {
+    private final String original;
+    private final String[] literals;
+    private final String[] variables;
+    private final int literalLength;
+    private final String constant;
+
+    private VariableTemplate(@NotNull String original, @NotNull String[] literals, @NotNull String[] variables) {
+        this.original = original;
+        for (int i = 0; i < literals.length; i++) {
+            literals[i] = ColorUtils.colorize(literals[i]);
+        }
+        this.literals = literals;
+        this.variables = variables;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+        this.constant = variables.length == 0 ? literals[0] : null;
+    }
+
+    /**
+     * Compile the string into a template
+     *
+     * @param original the string
+     * @return the template
+     */
+    @NotNull
+    public static VariableTemplate compile(@NotNull String original) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int index = 0;
+        while (index < original.length()) {
+            int start = original.indexOf('{', index);
+            if (start < 0) {
+                break;
+            }
+            int end = original.indexOf('}', start + 1);
+            if (end < 0) {
+                break;
+            }
+            int nestedStart = original.indexOf('{', start + 1);
+            if (nestedStart >= 0 && nestedStart < end) {
+                literal.append(original, index, nestedStart);
+                index = nestedStart;
+                continue;
+            }
+            if (end == start + 1) {
+                literal.append(original, index, end + 1);
+                index = end + 1;
+                continue;
+            }
+            literal.append(original, index, start);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            variables.add(original.substring(start + 1, end));
+            index = end + 1;
+        }
+        literal.append(original, index, original.length());
+        literals.add(literal.toString());
+        return new VariableTemplate(original, literals.toArray(new String[0]), variables.toArray(new String[0]));
+    }
+
+    /**
+     * Get the original string
+     *
+     * @return the original string
+     */
+    @NotNull
+    public String getOriginal() {
+        return original;
+    }
+
+    /**
+     * Get the names of the variables in the template
+     *
+     * @return the names of the variables, in order
+     */
+    @NotNull
+    public List<String> getVariables() {
+        return Collections.unmodifiableList(Arrays.asList(variables));
+    }
+
+    /**
+     * Check if the template has no variable
+     *
+     * @return true if it has no variable
+     */
+    public boolean isConstant() {
+        return variables.length == 0;
+    }
+
+    /**
+     * Render the template
+     *
+     * @param resolver the function to get the value of a variable, or null to keep the variable as it is
+     * @return the rendered string
+     */
+    @NotNull
+    public String render(@NotNull Function<@NotNull String, @Nullable String> resolver) {
+        if (constant != null) {
+            return constant;
+        }
+        StringBuilder builder = new StringBuilder(literalLength + variables.length * 8);
+        for (int i = 0; i < variables.length; i++) {
+            builder.append(literals[i]);
+            String value = resolver.apply(variables[i]);
+            if (value == null) {
+                builder.append('{').append(variables[i]).append('}');
+            } else if (value.indexOf('&') >= 0) {
+                builder.append(ColorUtils.colorize(value));
+            } else {
+                builder.append(value);
+            }
+        }
+        builder.append(literals[variables.length]);
+        return builder.toString();
+    }
+}
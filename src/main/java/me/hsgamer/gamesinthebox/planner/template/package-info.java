@@ -0,0 +1,4 @@
+/**
+ * Contains the templates of the variables, compiled once and rendered many times
+ */
+package me.hsgamer.gamesinthebox.planner.template;
\ No newline at end of file
@@ -0,0 +1,61 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.replacement;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A version made of several input versions.
+ * It takes a new value every time any input changes, so the inputs are combined without collisions.
+ * The values come from a sequence shared by all instances, so a value is never reused, even by a new instance.
+ */
+public final class CompositeVersion {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private final AtomicReference<State> state = new AtomicReference<>();
+
+    /**
+     * Get the version for the inputs
+     *
+     * @param first  the first input
+     * @param second the second input
+     * @return the version, which is the same as the previous call if the inputs are the same
+     */
+    public long get(long first, long second) {
+        while (true) {
+            State current = state.get();
+            if (current != null && current.first == first && current.second == second) {
+                return current.version;
+            }
+            State next = new State(first, second, SEQUENCE.incrementAndGet());
+            if (state.compareAndSet(current, next)) {
+                return next.version;
+            }
+        }
+    }
+
+    private static final class State {
+        private final long first;
+        private final long second;
+        private final long version;
+
+        private State(long first, long second, long version) {
+            this.first = first;
+            this.second = second;
+            this.version = version;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,371 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.replacement;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A registry of the replacement queries.
+ * The handlers are registered once by the name or the prefix of the query, case-insensitively.
+ * A query is resolved to its handler and its parsed argument on the first use and the result is cached,
+ * so replacing a known query is a lookup in the cache followed by the call to the handler.
+ * <p>
+ * A prefix ends with {@code _} and the longest registered prefix of the query is used.
+ * <p>
+ * A handler can be registered with a {@link Version}, which changes every time the value of the query may change,
+ * so the renderers can skip the queries whose values are unchanged.
+ * <p>
+ * The queries registered with a {@link Supplier} or by the index do not depend on the player, so they are shared,
+ * and their values can be evaluated once for all players. The other queries are not shared unless they are registered so.
+ */
+public final class ReplacementRegistry implements VersionedStringReplacer {
+    private static final int MAX_CACHE_SIZE = 4096;
+    private static final Resolved<?> UNRESOLVED = new Resolved<>((argument, uuid) -> null, null, null, null);
+
+    private final Map<String, Resolved<?>> names = new ConcurrentHashMap<>();
+    private final Map<String, PrefixEntry<?>> prefixes = new ConcurrentHashMap<>();
+    private final Map<String, Resolved<?>> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Register the handler of the query with the name
+     *
+     * @param name    the name of the query
+     * @param handler the handler, which gets {@code null} as the argument
+     * @return this registry
+     */
+    @NotNull
+    public ReplacementRegistry register(@NotNull String name, @NotNull Handler<Void> handler) {
+        return register(name, handler, null);
+    }
+
+    /**
+     * Register the handler of the query with the name and the version of its value
+     *
+     * @param name    the name of the query
+     * @param handler the handler, which gets {@code null} as the argument
+     * @param version the version of the value, or null if the value is not versioned
+     * @return this registry
+     */
+    @NotNull
+    public ReplacementRegistry register(@NotNull String name, @NotNull Handler<Void> handler, @Nullable Version<Void> version) {
+        return register(name, handler, version, false);
+    }
+
+    private ReplacementRegistry register(@NotNull String name, @NotNull Handler<Void> handler, @Nullable Version<Void> version, boolean shared) {
+        names.put(name.toLowerCase(Locale.ROOT), new Resolved<>(handler, version, shared ? argument -> true : null, null));
+        cache.clear();
+        return this;
+    }
+
+    /**
+     * Register the query with the name that does not depend on the player
+     *
+     * @param name     the name of the query
+     * @param supplier the supplier of the value
+     * @return this registry
+     */
+    @NotNull
+    public ReplacementRegistry register(@NotNull String name, @NotNull Supplier<String> supplier) {
+        return register(name, (argument, uuid) -> supplier.get(), null, true);
+    }
+
+    /**
+     * Register the query with the name that does not depend on the player, with the version of its value
+     *
+     * @param name     the name of the query
+     * @param supplier the supplier of the value
+     * @param version  the supplier of the version of the value
+     * @return this registry
+     */
+    @NotNull
+    public ReplacementRegistry register(@NotNull String name, @NotNull Supplier<String> supplier, @NotNull LongSupplier version) {
+        return register(name, (argument, uuid) -> supplier.get(), argument -> version.getAsLong(), true);
+    }
+
+    /**
+     * Register the query with the name that depends on the player.
+     * The query is not resolved if there is no player.
+     *
+     * @param name     the name of the query
+     * @param function the function to get the value from the uuid of the player
+     * @return this registry
+     */
+    @NotNull
+    public ReplacementRegistry registerPlayer(@NotNull String name, @NotNull Function<UUID, String> function) {
+        return register(name, (Handler<Void>) (argument, uuid) -> uuid == null ? null : function.apply(uuid));
+    }
+
+    /**
+     * Register the handler of the queries with the prefix
+     *
+     * @param prefix  the prefix, ending with {@code _}
+     * @param parser  the parser of the rest of the query, which returns {@code null} if the query is invalid
+     * @param handler the handler
+     * @param <T>     the type of the argument
+     * @return this registry
+     */
+    @NotNull
+    public <T> ReplacementRegistry registerPrefix(@NotNull String prefix, @NotNull Function<String, T> parser, @NotNull Handler<T> handler) {
+        return registerPrefix(prefix, parser, handler, null);
+    }
+
+    /**
+     * Register the handler of the queries with the prefix and the version of their values
+     *
+     * @param prefix  the prefix, ending with {@code _}
+     * @param parser  the parser of the rest of the query, which returns {@code null} if the query is invalid
+     * @param handler the handler
+     * @param version the version of the value, or null if the value is not versioned
+     * @param <T>     the type of the argument
+     * @return this registry
+     */
+    @NotNull
+    public <T> ReplacementRegistry registerPrefix(@NotNull String prefix, @NotNull Function<String, T> parser, @NotNull Handler<T> handler, @Nullable Version<T> version) {
+        return registerPrefix(prefix, parser, handler, version, null);
+    }
+
+    /**
+     * Register the handler of the queries with the prefix, the version of their values and whether they are shared
+     *
+     * @param prefix  the prefix, ending with {@code _}
+     * @param parser  the parser of the rest of the query, which returns {@code null} if the query is invalid
+     * @param handler the handler
+     * @param version the version of the value, or null if the value is not versioned
+     * @param shared  the predicate to check if the value is the same for all players, or null if it is not
+     * @param <T>     the type of the argument
+     * @return this registry
+     * @see #isShared(String)
+     */
+    @NotNull
+    public <T> ReplacementRegistry registerPrefix(@NotNull String prefix, @NotNull Function<String, T> parser, @NotNull Handler<T> handler, @Nullable Version<T> version, @Nullable Predicate<T> shared) {
+        if (!prefix.endsWith("_")) {
+            throw new IllegalArgumentException("The prefix must end with '_'");
+        }
+        prefixes.put(prefix.toLowerCase(Locale.ROOT), new PrefixEntry<>(parser, handler, version, shared));
+        cache.clear();
+        return this;
+    }
+
+    /**
+     * Register the handler of the queries with the prefix.
+     * The argument is the rest of the query.
+     *
+     * @param prefix  the prefix, ending with {@code _}
+     * @param handler the handler
+     * @return this registry
+     */
+    @NotNull
+    public ReplacementRegistry registerPrefix(@NotNull String prefix, @NotNull Handler<String> handler) {
+        return registerPrefix(prefix, Function.identity(), handler);
+    }
+
+    /**
+     * Register the queries in the format of {@code [prefix][index]}, where the index starts from 1.
+     * The function gets the index starting from 0.
+     *
+     * @param prefix   the prefix, ending with {@code _}
+     * @param function the function to get the value from the index
+     * @return this registry
+     */
+    @NotNull
+    public ReplacementRegistry registerIndex(@NotNull String prefix, @NotNull IntFunction<String> function) {
+        return registerPrefix(prefix, ReplacementRegistry::parseIndex, (index, uuid) -> function.apply(index), null, index -> true);
+    }
+
+    /**
+     * Register the queries in the format of {@code [prefix][index]}, with the version of their values
+     *
+     * @param prefix   the prefix, ending with {@code _}
+     * @param function the function to get the value from the index
+     * @param version  the function to get the version of the value from the index
+     * @return this registry
+     * @see #registerIndex(String, IntFunction)
+     */
+    @NotNull
+    public ReplacementRegistry registerIndex(@NotNull String prefix, @NotNull IntFunction<String> function, @NotNull IntToLongFunction version) {
+        return registerPrefix(prefix, ReplacementRegistry::parseIndex, (index, uuid) -> function.apply(index), version::applyAsLong, index -> true);
+    }
+
+    @Nullable
+    private static Integer parseIndex(@NotNull String value) {
+        try {
+            return Integer.parseInt(value) - 1;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @NotNull
+    private Resolved<?> resolve(@NotNull String query) {
+        Resolved<?> resolved = cache.get(query);
+        if (resolved != null) {
+            return resolved;
+        }
+        resolved = lookup(query);
+        if (cache.size() >= MAX_CACHE_SIZE) {
+            cache.clear();
+        }
+        cache.put(query, resolved);
+        return resolved;
+    }
+
+    @NotNull
+    private Resolved<?> lookup(@NotNull String query) {
+        String lowerCaseQuery = query.toLowerCase(Locale.ROOT);
+        Resolved<?> resolved = names.get(lowerCaseQuery);
+        if (resolved != null) {
+            return resolved;
+        }
+        for (int index = lowerCaseQuery.lastIndexOf('_'); index >= 0; index = lowerCaseQuery.lastIndexOf('_', index - 1)) {
+            PrefixEntry<?> entry = prefixes.get(lowerCaseQuery.substring(0, index + 1));
+            if (entry != null) {
+                return entry.resolve(query.substring(index + 1));
+            }
+        }
+        return UNRESOLVED;
+    }
+
+    /**
+     * Check if the query is handled by this registry
+     *
+     * @param query the query
+     * @return true if it is
+     */
+    public boolean contains(@NotNull String query) {
+        return resolve(query) != UNRESOLVED;
+    }
+
+    /**
+     * Remove all handlers
+     */
+    public void clear() {
+        names.clear();
+        prefixes.clear();
+        cache.clear();
+    }
+
+    @Override
+    public long getVersion(@NotNull String query) {
+        return resolve(query).getVersion();
+    }
+
+    @Override
+    public boolean isShared(@NotNull String query) {
+        return resolve(query).isShared();
+    }
+
+    @Override
+    public @Nullable String replace(@NotNull String query) {
+        return resolve(query).replace(null);
+    }
+
+    @Override
+    public @Nullable String replace(@NotNull String query, @NotNull UUID uuid) {
+        return resolve(query).replace(uuid);
+    }
+
+    /**
+     * The handler of a query
+     *
+     * @param <T> the type of the argument
+     */
+    @FunctionalInterface
+    public interface Handler<T> {
+        /**
+         * Get the value of the query
+         *
+         * @param argument the argument parsed from the query
+         * @param uuid     the uuid of the player, or {@code null} if the query is not for a player
+         * @return the value, or {@code null} if the query cannot be handled
+         */
+        @Nullable
+        String replace(T argument, @Nullable UUID uuid);
+    }
+
+    /**
+     * The version of the value of a query
+     *
+     * @param <T> the type of the argument
+     */
+    @FunctionalInterface
+    public interface Version<T> {
+        /**
+         * Get the version of the value.
+         * It must change every time the value may change, and must not be {@link #UNVERSIONED}.
+         *
+         * @param argument the argument parsed from the query
+         * @return the version
+         */
+        long getVersion(T argument);
+    }
+
+    private static final class PrefixEntry<T> {
+        private final Function<String, T> parser;
+        private final Handler<T> handler;
+        private final Version<T> version;
+        private final Predicate<T> shared;
+
+        private PrefixEntry(Function<String, T> parser, Handler<T> handler, Version<T> version, Predicate<T> shared) {
+            this.parser = parser;
+            this.handler = handler;
+            this.version = version;
+            this.shared = shared;
+        }
+
+        private Resolved<?> resolve(String value) {
+            T argument = parser.apply(value);
+            return argument == null ? UNRESOLVED : new Resolved<>(handler, version, shared, argument);
+        }
+    }
+
+    private static final class Resolved<T> {
+        private final Handler<T> handler;
+        private final Version<T> version;
+        private final Predicate<T> shared;
+        private final T argument;
+
+        private Resolved(Handler<T> handler, Version<T> version, Predicate<T> shared, T argument) {
+            this.handler = handler;
+            this.version = version;
+            this.shared = shared;
+            this.argument = argument;
+        }
+
+        private String replace(UUID uuid) {
+            return handler.replace(argument, uuid);
+        }
+
+        private long getVersion() {
+            return version == null ? UNVERSIONED : version.getVersion(argument);
+        }
+
+        private boolean isShared() {
+            return shared != null && shared.test(argument);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,122 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.replacement;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The table of the results of many replacement queries for many players.
+ * The rows are the queries and the columns are the players.
+ */
+public final class ReplacementTable {
+    private final List<String> queries;
+    private final List<UUID> uuids;
+    private final Map<String, Integer> queryIndexes;
+    private final Map<UUID, Integer> uuidIndexes;
+    private final String[][] values;
+
+    /**
+     * Create a new table
+     *
+     * @param queries the queries
+     * @param uuids   the uuids of the players
+     * @param values  the values, indexed by the query and then the player
+     */
+    public ReplacementTable(@NotNull List<String> queries, @NotNull List<UUID> uuids, @NotNull String[][] values) {
+        this.queries = Collections.unmodifiableList(new ArrayList<>(queries));
+        this.uuids = Collections.unmodifiableList(new ArrayList<>(uuids));
+        this.queryIndexes = new HashMap<>(queries.size() * 2);
+        for (int i = 0; i < queries.size(); i++) {
+            queryIndexes.putIfAbsent(queries.get(i), i);
+        }
+        this.uuidIndexes = new HashMap<>(uuids.size() * 2);
+        for (int i = 0; i < uuids.size(); i++) {
+            uuidIndexes.putIfAbsent(uuids.get(i), i);
+        }
+        this.values = values;
+    }
+
+    /**
+     * Get the queries
+     *
+     * @return the queries
+     */
+    @NotNull
+    public List<String> getQueries() {
+        return queries;
+    }
+
+    /**
+     * Get the uuids of the players
+     *
+     * @return the uuids
+     */
+    @NotNull
+    public List<UUID> getUuids() {
+        return uuids;
+    }
+
+    /**
+     * Get the value
+     *
+     * @param queryIndex the index of the query
+     * @param uuidIndex  the index of the player
+     * @return the value, or null if the query has no value
+     */
+    @Nullable
+    public String get(int queryIndex, int uuidIndex) {
+        return values[queryIndex][uuidIndex];
+    }
+
+    /**
+     * Get the value
+     *
+     * @param query the query
+     * @param uuid  the uuid of the player
+     * @return the value, or null if the query has no value or the query or the player is not in the table
+     */
+    @Nullable
+    public String get(@NotNull String query, @NotNull UUID uuid) {
+        Integer queryIndex = queryIndexes.get(query);
+        Integer uuidIndex = uuidIndexes.get(uuid);
+        if (queryIndex == null || uuidIndex == null) {
+            return null;
+        }
+        return values[queryIndex][uuidIndex];
+    }
+
+    /**
+     * Get the values of the player
+     *
+     * @param uuid the uuid of the player
+     * @return the map of the query and the value, or an empty map if the player is not in the table
+     */
+    @NotNull
+    public Map<String, String> getValues(@NotNull UUID uuid) {
+        Integer uuidIndex = uuidIndexes.get(uuid);
+        if (uuidIndex == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < queries.size(); i++) {
+            map.put(queries.get(i), values[i][uuidIndex]);
+        }
+        return map;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.replacement;
+
+import me.hsgamer.hscore.common.StringReplacer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The {@link StringReplacer} that can tell when the value of a query may have changed
+ */
+public interface VersionedStringReplacer extends StringReplacer {
+    /**
+     * The version of a query whose changes are not tracked
+     */
+    long UNVERSIONED = -1L;
+
+    /**
+     * Get the version of the value of the query.
+     * The version changes every time the value may change, so a value can be reused while its version stays the same.
+     *
+     * @param query the query
+     * @return the version, or {@link #UNVERSIONED} if the changes of the query are not tracked
+     */
+    long getVersion(@NotNull String query);
+
+    /**
+     * Check if the value of the query is the same for all players.
+     * A shared query can be replaced once without a player and the value reused for every player.
+     *
+     * @param query the query
+     * @return true if it is shared, false if it may depend on the player or it is unknown
+     */
+    default boolean isShared(@NotNull String query) {
+        return false;
+    }
+}
\ No newline at end of file
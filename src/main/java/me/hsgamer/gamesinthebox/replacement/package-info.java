@@ -0,0 +1,4 @@
+/**
+ * Contains the registry of the replacement queries
+ */
+package me.hsgamer.gamesinthebox.replacement;
\ No newline at end of file
@@ -0,0 +1,95 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.stats;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The lifetime statistics of a player
+ */
+public final class PlayerStats {
+    /**
+     * The empty statistics
+     */
+    public static final PlayerStats EMPTY = new PlayerStats(0, 0, 0, 0);
+
+    private final int gamesPlayed;
+    private final int wins;
+    private final int topPlacements;
+    private final long totalPoints;
+
+    /**
+     * Create new statistics
+     *
+     * @param gamesPlayed   the number of played games
+     * @param wins          the number of wins
+     * @param topPlacements the number of top placements
+     * @param totalPoints   the total points
+     */
+    public PlayerStats(int gamesPlayed, int wins, int topPlacements, long totalPoints) {
+        this.gamesPlayed = gamesPlayed;
+        this.wins = wins;
+        this.topPlacements = topPlacements;
+        this.totalPoints = totalPoints;
+    }
+
+    /**
+     * Get the number of played games
+     *
+     * @return the number of played games
+     */
+    public int getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    /**
+     * Get the number of wins
+     *
+     * @return the number of wins
+     */
+    public int getWins() {
+        return wins;
+    }
+
+    /**
+     * Get the number of top placements
+     *
+     * @return the number of top placements
+     */
+    public int getTopPlacements() {
+        return topPlacements;
+    }
+
+    /**
+     * Get the total points
+     *
+     * @return the total points
+     */
+    public long getTotalPoints() {
+        return totalPoints;
+    }
+
+    /**
+     * Combine the statistics with another one
+     *
+     * @param other the other statistics
+     * @return the combined statistics
+     */
+    @NotNull
+    public PlayerStats add(@NotNull PlayerStats other) {
+        return new PlayerStats(gamesPlayed + other.gamesPlayed, wins + other.wins, topPlacements + other.topPlacements, totalPoints + other.totalPoints);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,287 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.stats;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The store of {@link PlayerStats} in a memory-mapped file.
+ * Each pair of player and game type has a fixed-size record, and the index of the records is kept in memory,
+ * so a lookup is a hash lookup followed by a few reads from the mapped memory.
+ * <p>
+ * The layout of the file:
+ * <pre>
+ *     header: magic (int), version (int), record count (int), type count (int), reserved to 64 bytes
+ *     types:  64 slots of 64 bytes, each is the length (short) and the UTF-8 bytes of the type name
+ *     records: most bits (long), least bits (long), type id (int), games played (int), wins (int), top placements (int), total points (long)
+ * </pre>
+ * The reads can be done from any thread, but the writes should be done from a single thread.
+ */
+public final class PlayerStatsStore implements Closeable {
+    /**
+     * The maximum number of game types
+     */
+    public static final int MAX_TYPES = 64;
+    private static final int MAGIC = 0x47495442;
+    private static final int VERSION = 1;
+    private static final int TYPE_SLOT_SIZE = 64;
+    private static final int TYPES_OFFSET = 64;
+    private static final int HEADER_SIZE = TYPES_OFFSET + MAX_TYPES * TYPE_SLOT_SIZE;
+    private static final int RECORD_SIZE = 40;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final FileChannel channel;
+    private final StampedLock lock = new StampedLock();
+    private final Map<String, Integer> typeIds = new HashMap<>();
+    private final List<Map<UUID, Integer>> indexes = new ArrayList<>();
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int recordCount;
+
+    /**
+     * Open the store
+     *
+     * @param file the file
+     * @throws IOException if the file cannot be opened or is not a valid store
+     */
+    public PlayerStatsStore(@NotNull File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                map(INITIAL_CAPACITY);
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, 0);
+                buffer.putInt(12, 0);
+            } else {
+                map((int) Math.max(INITIAL_CAPACITY, (channel.size() - HEADER_SIZE) / RECORD_SIZE));
+                load();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void map(int capacity) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        this.capacity = capacity;
+    }
+
+    private void load() throws IOException {
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("The file is not a stats file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported stats version: " + buffer.getInt(4));
+        }
+        int typeCount = buffer.getInt(12);
+        for (int id = 0; id < typeCount; id++) {
+            int offset = TYPES_OFFSET + id * TYPE_SLOT_SIZE;
+            byte[] bytes = new byte[buffer.getShort(offset)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(offset + 2 + i);
+            }
+            typeIds.put(new String(bytes, StandardCharsets.UTF_8), id);
+            indexes.add(new HashMap<>());
+        }
+        recordCount = Math.min(buffer.getInt(8), capacity);
+        for (int index = 0; index < recordCount; index++) {
+            int offset = HEADER_SIZE + index * RECORD_SIZE;
+            int typeId = buffer.getInt(offset + 16);
+            if (typeId >= 0 && typeId < indexes.size()) {
+                indexes.get(typeId).put(new UUID(buffer.getLong(offset), buffer.getLong(offset + 8)), index);
+            }
+        }
+    }
+
+    private static String normalize(@NotNull String type) {
+        return type.toLowerCase(Locale.ROOT);
+    }
+
+    private int getOrCreateTypeId(@NotNull String type) {
+        Integer id = typeIds.get(type);
+        if (id != null) {
+            return id;
+        }
+        byte[] bytes = type.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > TYPE_SLOT_SIZE - 2) {
+            throw new IllegalArgumentException("The game type is too long: " + type);
+        }
+        if (typeIds.size() >= MAX_TYPES) {
+            throw new IllegalStateException("Cannot store more than " + MAX_TYPES + " game types");
+        }
+        int newId = typeIds.size();
+        int offset = TYPES_OFFSET + newId * TYPE_SLOT_SIZE;
+        buffer.putShort(offset, (short) bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            buffer.put(offset + 2 + i, bytes[i]);
+        }
+        typeIds.put(type, newId);
+        indexes.add(new HashMap<>());
+        buffer.putInt(12, typeIds.size());
+        return newId;
+    }
+
+    private void ensureOpen() {
+        if (buffer == null) {
+            throw new IllegalStateException("The store is closed");
+        }
+    }
+
+    @NotNull
+    private PlayerStats read(int index) {
+        int offset = HEADER_SIZE + index * RECORD_SIZE;
+        return new PlayerStats(
+                buffer.getInt(offset + 20),
+                buffer.getInt(offset + 24),
+                buffer.getInt(offset + 28),
+                buffer.getLong(offset + 32)
+        );
+    }
+
+    /**
+     * Get the statistics of the player in a game type
+     *
+     * @param uuid the uuid of the player
+     * @param type the game type
+     * @return the statistics, or {@link PlayerStats#EMPTY} if there is none
+     */
+    @NotNull
+    public PlayerStats get(@NotNull UUID uuid, @NotNull String type) {
+        long stamp = lock.readLock();
+        try {
+            ensureOpen();
+            Integer typeId = typeIds.get(normalize(type));
+            if (typeId == null) {
+                return PlayerStats.EMPTY;
+            }
+            Integer index = indexes.get(typeId).get(uuid);
+            return index == null ? PlayerStats.EMPTY : read(index);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Get the statistics of the player in all game types
+     *
+     * @param uuid the uuid of the player
+     * @return the combined statistics
+     */
+    @NotNull
+    public PlayerStats get(@NotNull UUID uuid) {
+        long stamp = lock.readLock();
+        try {
+            ensureOpen();
+            PlayerStats stats = PlayerStats.EMPTY;
+            for (Map<UUID, Integer> index : indexes) {
+                Integer recordIndex = index.get(uuid);
+                if (recordIndex != null) {
+                    stats = stats.add(read(recordIndex));
+                }
+            }
+            return stats;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Add the statistics to the player in a game type
+     *
+     * @param uuid  the uuid of the player
+     * @param type  the game type
+     * @param stats the statistics to add
+     * @throws IOException if the file cannot be extended
+     */
+    public void add(@NotNull UUID uuid, @NotNull String type, @NotNull PlayerStats stats) throws IOException {
+        long stamp = lock.writeLock();
+        try {
+            ensureOpen();
+            int typeId = getOrCreateTypeId(normalize(type));
+            Map<UUID, Integer> index = indexes.get(typeId);
+            Integer recordIndex = index.get(uuid);
+            if (recordIndex == null) {
+                if (recordCount >= capacity) {
+                    map(capacity * 2);
+                }
+                recordIndex = recordCount++;
+                int offset = HEADER_SIZE + recordIndex * RECORD_SIZE;
+                buffer.putLong(offset, uuid.getMostSignificantBits());
+                buffer.putLong(offset + 8, uuid.getLeastSignificantBits());
+                buffer.putInt(offset + 16, typeId);
+                buffer.putInt(offset + 20, 0);
+                buffer.putInt(offset + 24, 0);
+                buffer.putInt(offset + 28, 0);
+                buffer.putLong(offset + 32, 0);
+                buffer.putInt(8, recordCount);
+                index.put(uuid, recordIndex);
+            }
+            int offset = HEADER_SIZE + recordIndex * RECORD_SIZE;
+            buffer.putInt(offset + 20, buffer.getInt(offset + 20) + stats.getGamesPlayed());
+            buffer.putInt(offset + 24, buffer.getInt(offset + 24) + stats.getWins());
+            buffer.putInt(offset + 28, buffer.getInt(offset + 28) + stats.getTopPlacements());
+            buffer.putLong(offset + 32, buffer.getLong(offset + 32) + stats.getTotalPoints());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Write the changes to the disk
+     */
+    public void force() {
+        long stamp = lock.readLock();
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Write the changes to the disk and close the file.
+     * The mapped memory is released once it is garbage-collected, so the store should not be used after this.
+     */
+    @Override
+    public void close() throws IOException {
+        long stamp = lock.writeLock();
+        try {
+            if (buffer != null) {
+                buffer.force();
+                buffer = null;
+                indexes.clear();
+                typeIds.clear();
+            }
+            channel.close();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+}
\ No newline at end of file
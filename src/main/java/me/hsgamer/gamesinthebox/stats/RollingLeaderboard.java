@@ -0,0 +1,285 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.stats;
+
+import me.hsgamer.gamesinthebox.game.point.PointRanking;
+import me.hsgamer.gamesinthebox.game.point.PointSnapshot;
+import me.hsgamer.gamesinthebox.game.point.PointTable;
+import me.hsgamer.hscore.common.Pair;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * A leaderboard of the points gained in a rolling window of time.
+ * The window is split into a ring of buckets, each bucket keeps the points gained by the players in its period of time.
+ * When a bucket falls out of the window, its points are removed from the ranking and the bucket is reused,
+ * so the leaderboard never needs to aggregate the past results again.
+ * <p>
+ * The first entries of the ranking are cached after every change, so reading the top is {@code O(1)}.
+ */
+public final class RollingLeaderboard {
+    private static final long NO_BUCKET = Long.MIN_VALUE;
+
+    private final String name;
+    private final long bucketDuration;
+    private final PointTable[] buckets;
+    private final long[] bucketIds;
+    private final int topSize;
+    private final PointRanking<UUID> ranking = new PointRanking<>();
+    private volatile List<Pair<UUID, Integer>> cachedTop = Collections.emptyList();
+    private long currentBucketId = NO_BUCKET;
+
+    /**
+     * Create a new leaderboard
+     *
+     * @param name           the name of the leaderboard
+     * @param bucketDuration the duration of a bucket in milliseconds
+     * @param bucketCount    the number of buckets in the window
+     * @param topSize        the number of top entries to cache
+     */
+    public RollingLeaderboard(@NotNull String name, long bucketDuration, int bucketCount, int topSize) {
+        this.name = name;
+        this.bucketDuration = bucketDuration;
+        this.buckets = new PointTable[bucketCount];
+        this.bucketIds = new long[bucketCount];
+        this.topSize = topSize;
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new PointTable();
+            bucketIds[i] = NO_BUCKET;
+        }
+    }
+
+    /**
+     * Get the name of the leaderboard
+     *
+     * @return the name
+     */
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the length of the window
+     *
+     * @return the length in milliseconds
+     */
+    public long getWindowDuration() {
+        return bucketDuration * buckets.length;
+    }
+
+    private void expire(int slot) {
+        buckets[slot].forEach((mostBits, leastBits, point) -> {
+            UUID uuid = new UUID(mostBits, leastBits);
+            ranking.update(uuid, ranking.getPoint(uuid) - point);
+        });
+        buckets[slot].clear();
+        bucketIds[slot] = NO_BUCKET;
+    }
+
+    private boolean expireBefore(long bucketId) {
+        boolean changed = false;
+        long oldestId = bucketId - buckets.length + 1;
+        for (int slot = 0; slot < buckets.length; slot++) {
+            if (bucketIds[slot] != NO_BUCKET && bucketIds[slot] < oldestId) {
+                expire(slot);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private void refreshCache() {
+        cachedTop = Collections.unmodifiableList(ranking.getTop(topSize));
+    }
+
+    /**
+     * Move the window to the time, removing the points that fall out of the window
+     *
+     * @param time the current time in milliseconds
+     */
+    public synchronized void advance(long time) {
+        long bucketId = Math.floorDiv(time, bucketDuration);
+        if (bucketId == currentBucketId) {
+            return;
+        }
+        currentBucketId = bucketId;
+        if (expireBefore(bucketId)) {
+            refreshCache();
+        }
+    }
+
+    /**
+     * Add the positive points of the players at the time
+     *
+     * @param time   the time in milliseconds
+     * @param points the points of the players
+     */
+    public synchronized void add(long time, @NotNull PointSnapshot points) {
+        advance(time);
+        long bucketId = Math.floorDiv(time, bucketDuration);
+        if (bucketId < currentBucketId - buckets.length + 1) {
+            return;
+        }
+        int slot = (int) Math.floorMod(bucketId, (long) buckets.length);
+        if (bucketIds[slot] != bucketId) {
+            if (bucketIds[slot] != NO_BUCKET) {
+                expire(slot);
+            }
+            bucketIds[slot] = bucketId;
+        }
+        PointTable bucket = buckets[slot];
+        points.forEach((mostBits, leastBits, point) -> {
+            if (point <= 0) {
+                return;
+            }
+            bucket.add(mostBits, leastBits, point);
+            UUID uuid = new UUID(mostBits, leastBits);
+            ranking.update(uuid, ranking.getPoint(uuid) + point);
+        });
+        refreshCache();
+    }
+
+    /**
+     * Get the cached top
+     *
+     * @return the list of pairs of the player and the point, sorted by the point
+     */
+    @NotNull
+    public List<Pair<UUID, Integer>> getTop() {
+        return cachedTop;
+    }
+
+    /**
+     * Get the entry of the top at the index
+     *
+     * @param index the index, starting from 0
+     * @return the pair of the player and the point, or empty if out of range
+     */
+    @NotNull
+    public Optional<Pair<UUID, Integer>> getTop(int index) {
+        List<Pair<UUID, Integer>> top = cachedTop;
+        if (index < 0) {
+            return Optional.empty();
+        }
+        if (index < top.size()) {
+            return Optional.of(top.get(index));
+        }
+        if (top.size() < topSize) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            return ranking.get(index);
+        }
+    }
+
+    /**
+     * Get the point of the player in the window
+     *
+     * @param uuid the uuid of the player
+     * @return the point
+     */
+    public synchronized int getPoint(@NotNull UUID uuid) {
+        return ranking.getPoint(uuid);
+    }
+
+    /**
+     * Get the index of the player in the leaderboard
+     *
+     * @param uuid the uuid of the player
+     * @return the index, starting from 0, or -1 if the player is not in the leaderboard
+     */
+    public synchronized int getRank(@NotNull UUID uuid) {
+        return ranking.getRank(uuid);
+    }
+
+    /**
+     * Write the buckets
+     *
+     * @param output the output
+     * @throws IOException if an I/O error occurs
+     */
+    public synchronized void write(@NotNull DataOutput output) throws IOException {
+        output.writeUTF(name);
+        output.writeLong(bucketDuration);
+        output.writeInt(buckets.length);
+        for (int slot = 0; slot < buckets.length; slot++) {
+            output.writeLong(bucketIds[slot]);
+            output.writeInt(buckets[slot].size());
+            List<IOException> errors = new ArrayList<>(1);
+            buckets[slot].forEach((mostBits, leastBits, point) -> {
+                try {
+                    output.writeLong(mostBits);
+                    output.writeLong(leastBits);
+                    output.writeInt(point);
+                } catch (IOException e) {
+                    errors.add(e);
+                }
+            });
+            if (!errors.isEmpty()) {
+                throw errors.get(0);
+            }
+        }
+    }
+
+    /**
+     * Read the buckets written by {@link #write(DataOutput)}.
+     * The buckets are ignored if the leaderboard has a different layout.
+     *
+     * @param input the input
+     * @param time  the current time in milliseconds
+     * @throws IOException if an I/O error occurs
+     */
+    public synchronized void read(@NotNull DataInput input, long time) throws IOException {
+        String storedName = input.readUTF();
+        long storedBucketDuration = input.readLong();
+        int bucketCount = input.readInt();
+        boolean sameLayout = storedName.equals(name) && storedBucketDuration == bucketDuration && bucketCount == buckets.length;
+        for (int slot = 0; slot < bucketCount; slot++) {
+            long bucketId = input.readLong();
+            int size = input.readInt();
+            if (sameLayout) {
+                buckets[slot].clear();
+                bucketIds[slot] = bucketId;
+            }
+            for (int i = 0; i < size; i++) {
+                long mostBits = input.readLong();
+                long leastBits = input.readLong();
+                int point = input.readInt();
+                if (sameLayout) {
+                    buckets[slot].add(mostBits, leastBits, point);
+                }
+            }
+        }
+        if (!sameLayout) {
+            return;
+        }
+        ranking.clear();
+        for (PointTable bucket : buckets) {
+            bucket.forEach((mostBits, leastBits, point) -> {
+                UUID uuid = new UUID(mostBits, leastBits);
+                ranking.update(uuid, ranking.getPoint(uuid) + point);
+            });
+        }
+        currentBucketId = NO_BUCKET;
+        advance(time);
+        refreshCache();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,4 @@
+/**
+ * Contains the persistent statistics of the players
+ */
+package me.hsgamer.gamesinthebox.stats;
\ No newline at end of file
@@ -0,0 +1,199 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.util;
+
+import me.hsgamer.hscore.bukkit.scheduler.Scheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The utility for the names of the players.
+ * The names are kept in a bounded cache, which evicts the least recently used names.
+ * A missing name is looked up asynchronously, since getting an offline player may read the user cache from the disk,
+ * so the hot paths only read from the cache and never block.
+ * A player without a name is remembered for {@value #MISSING_TTL_SECONDS} seconds, so it is not looked up on every call.
+ */
+public final class PlayerNameUtil {
+    private static final int MAX_SIZE = 4096;
+    private static final long MISSING_TTL_SECONDS = 60;
+    private static final Map<UUID, String> NAMES = new LinkedHashMap<UUID, String>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, String> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+    private static final Map<UUID, Long> MISSING = new LinkedHashMap<UUID, Long>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Long> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+    private static final Map<UUID, CompletableFuture<String>> PENDING = new ConcurrentHashMap<>();
+
+    private PlayerNameUtil() {
+        // EMPTY
+    }
+
+    /**
+     * Put the name of the player to the cache
+     *
+     * @param uuid the uuid of the player
+     * @param name the name of the player
+     */
+    public static void put(@NotNull UUID uuid, @NotNull String name) {
+        synchronized (NAMES) {
+            NAMES.put(uuid, name);
+        }
+        synchronized (MISSING) {
+            MISSING.remove(uuid);
+        }
+    }
+
+    private static boolean isMissing(@NotNull UUID uuid) {
+        synchronized (MISSING) {
+            Long expireTime = MISSING.get(uuid);
+            if (expireTime == null) {
+                return false;
+            }
+            if (System.nanoTime() - expireTime < 0) {
+                return true;
+            }
+            MISSING.remove(uuid);
+            return false;
+        }
+    }
+
+    private static void putMissing(@NotNull UUID uuid) {
+        synchronized (MISSING) {
+            MISSING.put(uuid, System.nanoTime() + TimeUnit.SECONDS.toNanos(MISSING_TTL_SECONDS));
+        }
+    }
+
+    @Nullable
+    private static String getCached(@NotNull UUID uuid) {
+        synchronized (NAMES) {
+            return NAMES.get(uuid);
+        }
+    }
+
+    /**
+     * Get the name of the player from the cache.
+     * If the name is not in the cache, it is looked up asynchronously and this returns null.
+     * A player that was looked up recently and had no name is not looked up again until the entry expires.
+     *
+     * @param uuid the uuid of the player
+     * @return the name, or null if it is not in the cache yet
+     */
+    @Nullable
+    public static String getName(@NotNull UUID uuid) {
+        String name = getCached(uuid);
+        if (name == null) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null) {
+                name = player.getName();
+                put(uuid, name);
+            } else if (!isMissing(uuid)) {
+                load(uuid);
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Get the name of the player, or the fallback if the name is not in the cache yet
+     *
+     * @param uuid     the uuid of the player
+     * @param fallback the fallback
+     * @return the name or the fallback
+     */
+    @NotNull
+    public static String getName(@NotNull UUID uuid, @NotNull String fallback) {
+        String name = getName(uuid);
+        return name == null ? fallback : name;
+    }
+
+    /**
+     * Get the name of the player, waiting for the lookup if the name is not in the cache
+     *
+     * @param uuid the uuid of the player
+     * @return the future of the name, which completes with null if the player has no name
+     */
+    @NotNull
+    public static CompletableFuture<String> getNameAsync(@NotNull UUID uuid) {
+        String name = getName(uuid);
+        if (name != null || isMissing(uuid)) {
+            return CompletableFuture.completedFuture(name);
+        }
+        return load(uuid);
+    }
+
+    /**
+     * Make sure the name of the player is in the cache, looking it up asynchronously if it is not
+     *
+     * @param uuid the uuid of the player
+     */
+    public static void remember(@NotNull UUID uuid) {
+        if (getCached(uuid) == null && !isMissing(uuid)) {
+            load(uuid);
+        }
+    }
+
+    @NotNull
+    private static CompletableFuture<String> load(@NotNull UUID uuid) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> pending = PENDING.putIfAbsent(uuid, future);
+        if (pending != null) {
+            return pending;
+        }
+        Scheduler.providingPlugin(PlayerNameUtil.class).async().runTask(() -> {
+            try {
+                String name = Bukkit.getOfflinePlayer(uuid).getName();
+                if (name != null) {
+                    put(uuid, name);
+                } else {
+                    putMissing(uuid);
+                }
+                future.complete(name);
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            } finally {
+                PENDING.remove(uuid, future);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Clear the cache
+     */
+    public static void clear() {
+        synchronized (NAMES) {
+            NAMES.clear();
+        }
+        synchronized (MISSING) {
+            MISSING.clear();
+        }
+    }
+}
\ No newline at end of file
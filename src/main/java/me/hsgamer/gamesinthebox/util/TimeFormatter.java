@@ -0,0 +1,280 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The formatter of the time, compiled once from a pattern.
+ * <p>
+ * The pattern supports these fields, where repeating the letter pads the number with zeros to that width:
+ * <ul>
+ *     <li>{@code d}: the days</li>
+ *     <li>{@code H}: the hours</li>
+ *     <li>{@code m}: the minutes</li>
+ *     <li>{@code s}: the seconds</li>
+ * </ul>
+ * The largest field in the pattern takes the whole remaining time (e.g. {@code mm:ss} shows 90 minutes as {@code 90:00}).
+ * Text between single quotes is kept as is, and two single quotes make a single quote.
+ * A part between {@code [} and {@code ]} is skipped if it has fields and all of them are zero,
+ * so {@code [H'h '][m'm ']s's'} shows {@code 1m 5s}.
+ * <p>
+ * The time is formatted by whole seconds, and the latest results are kept, so formatting the same second again does not create a new string.
+ * This class is thread-safe.
+ */
+public final class TimeFormatter {
+    private static final long[] UNIT_SECONDS = {86400L, 3600L, 60L, 1L};
+    private static final String UNIT_CHARS = "dHms";
+    private static final int CACHE_SIZE = 16;
+
+    private final String pattern;
+    private final Element[] elements;
+    private final boolean[] usedUnits = new boolean[UNIT_SECONDS.length];
+    private final Result[] results = new Result[CACHE_SIZE];
+    private final StringBuilder buffer = new StringBuilder();
+    private final long[] values = new long[UNIT_SECONDS.length];
+
+    private TimeFormatter(@NotNull String pattern) {
+        this.pattern = pattern;
+        Parser parser = new Parser(pattern);
+        this.elements = parser.parse(false);
+    }
+
+    /**
+     * Compile the pattern to a formatter
+     *
+     * @param pattern the pattern
+     * @return the formatter
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    @NotNull
+    public static TimeFormatter compile(@NotNull String pattern) {
+        return new TimeFormatter(pattern);
+    }
+
+    private static void appendPadded(@NotNull StringBuilder builder, long value, int width) {
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        for (int i = digits; i < width; i++) {
+            builder.append('0');
+        }
+        builder.append(value);
+    }
+
+    /**
+     * Get the pattern of the formatter
+     *
+     * @return the pattern
+     */
+    @NotNull
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Format the time
+     *
+     * @param millis the time in milliseconds. A negative time is formatted as 0
+     * @return the formatted time
+     */
+    @NotNull
+    public String format(long millis) {
+        long seconds = Math.max(0, millis) / 1000L;
+        int slot = (int) (seconds & (CACHE_SIZE - 1));
+        Result result = results[slot];
+        if (result != null && result.seconds == seconds) {
+            return result.value;
+        }
+        synchronized (buffer) {
+            long remaining = seconds;
+            for (int i = 0; i < UNIT_SECONDS.length; i++) {
+                if (usedUnits[i]) {
+                    values[i] = remaining / UNIT_SECONDS[i];
+                    remaining %= UNIT_SECONDS[i];
+                }
+            }
+            buffer.setLength(0);
+            for (Element element : elements) {
+                element.append(buffer, values);
+            }
+            String value = buffer.toString();
+            results[slot] = new Result(seconds, value);
+            return value;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    private interface Element {
+        void append(@NotNull StringBuilder builder, long[] values);
+
+        boolean isZero(long[] values);
+    }
+
+    private static final class Literal implements Element {
+        private final String text;
+
+        private Literal(@NotNull String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void append(@NotNull StringBuilder builder, long[] values) {
+            builder.append(text);
+        }
+
+        @Override
+        public boolean isZero(long[] values) {
+            return true;
+        }
+    }
+
+    private static final class Field implements Element {
+        private final int unit;
+        private final int width;
+
+        private Field(int unit, int width) {
+            this.unit = unit;
+            this.width = width;
+        }
+
+        @Override
+        public void append(@NotNull StringBuilder builder, long[] values) {
+            appendPadded(builder, values[unit], width);
+        }
+
+        @Override
+        public boolean isZero(long[] values) {
+            return values[unit] == 0;
+        }
+    }
+
+    private static final class Optional implements Element {
+        private final Element[] elements;
+        private final boolean hasField;
+
+        private Optional(@NotNull Element[] elements) {
+            this.elements = elements;
+            boolean hasField = false;
+            for (Element element : elements) {
+                if (!(element instanceof Literal)) {
+                    hasField = true;
+                    break;
+                }
+            }
+            this.hasField = hasField;
+        }
+
+        @Override
+        public void append(@NotNull StringBuilder builder, long[] values) {
+            if (hasField && isZero(values)) {
+                return;
+            }
+            for (Element element : elements) {
+                element.append(builder, values);
+            }
+        }
+
+        @Override
+        public boolean isZero(long[] values) {
+            for (Element element : elements) {
+                if (!element.isZero(values)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Result {
+        private final long seconds;
+        private final String value;
+
+        private Result(long seconds, @NotNull String value) {
+            this.seconds = seconds;
+            this.value = value;
+        }
+    }
+
+    private final class Parser {
+        private final String pattern;
+        private int index = 0;
+
+        private Parser(@NotNull String pattern) {
+            this.pattern = pattern;
+        }
+
+        private Element[] parse(boolean optional) {
+            List<Element> list = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            while (index < pattern.length()) {
+                char c = pattern.charAt(index);
+                int unit = UNIT_CHARS.indexOf(c);
+                if (c == '\'') {
+                    int end = pattern.indexOf('\'', index + 1);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("Unclosed quote in the time pattern: " + pattern);
+                    }
+                    literal.append(end == index + 1 ? "'" : pattern.substring(index + 1, end));
+                    index = end + 1;
+                } else if (c == '[') {
+                    flush(list, literal);
+                    index++;
+                    list.add(new Optional(parse(true)));
+                } else if (c == ']') {
+                    if (!optional) {
+                        throw new IllegalArgumentException("Unexpected ']' in the time pattern: " + pattern);
+                    }
+                    index++;
+                    flush(list, literal);
+                    return list.toArray(new Element[0]);
+                } else if (unit >= 0) {
+                    flush(list, literal);
+                    int width = 0;
+                    while (index < pattern.length() && pattern.charAt(index) == c) {
+                        width++;
+                        index++;
+                    }
+                    usedUnits[unit] = true;
+                    list.add(new Field(unit, width));
+                } else {
+                    literal.append(c);
+                    index++;
+                }
+            }
+            if (optional) {
+                throw new IllegalArgumentException("Unclosed '[' in the time pattern: " + pattern);
+            }
+            flush(list, literal);
+            return list.toArray(new Element[0]);
+        }
+
+        private void flush(@NotNull List<Element> list, @NotNull StringBuilder literal) {
+            if (literal.length() > 0) {
+                list.add(new Literal(literal.toString()));
+                literal.setLength(0);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -18,11 +18,11 @@ package me.hsgamer.gamesinthebox.util;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
 /**
  * The time utility
@@ -37,6 +37,9 @@ public final class TimeUtil {
             .put('M', TimeUnit.DAYS.toMillis(30))
             .put('y', TimeUnit.DAYS.toMillis(365))
             .build();
+    private static final TimeFormatter STANDARD_FORMATTER = TimeFormatter.compile("HH:mm:ss");
+    private static final String DEFAULT_FORMAT = "default";
+    private static volatile Map<String, TimeFormatter> formatters = Collections.emptyMap();
 
     private TimeUtil() {
         // EMPTY
@@ -106,10 +109,62 @@ public final class TimeUtil {
      */
     @NotNull
     public static String formatStandardTime(long time, @NotNull TimeUnit unit) {
-        long millis = unit.toMillis(time);
-        long hours = TimeUnit.MILLISECONDS.toHours(millis);
-        long minutes = TimeUnit.MILLISECONDS.toMinutes(millis) % 60;
-        long seconds = TimeUnit.MILLISECONDS.toSeconds(millis) % 60;
-        return String.format("%02d:%02d:%02d", hours, minutes, seconds);
+        return STANDARD_FORMATTER.format(unit.toMillis(time));
+    }
+
+    /**
+     * Set the named time formats.
+     * The invalid patterns are skipped.
+     *
+     * @param patterns the map of the name and the pattern of the format
+     * @param logger   the logger to warn about the invalid patterns
+     * @see TimeFormatter
+     */
+    public static void setFormats(@NotNull Map<String, String> patterns, @NotNull Logger logger) {
+        Map<String, TimeFormatter> map = new HashMap<>();
+        patterns.forEach((name, pattern) -> {
+            try {
+                map.put(name.toLowerCase(Locale.ROOT), TimeFormatter.compile(pattern));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid time format '" + name + "': " + e.getMessage());
+            }
+        });
+        formatters = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Get the named time format
+     *
+     * @param name the name of the format
+     * @return the formatter, or null if there is no format with that name
+     */
+    @Nullable
+    public static TimeFormatter getFormatter(@NotNull String name) {
+        return formatters.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Format the time with the named time format
+     *
+     * @param name   the name of the format
+     * @param millis the time in milliseconds
+     * @return the formatted time, or null if there is no format with that name
+     */
+    @Nullable
+    public static String format(@NotNull String name, long millis) {
+        TimeFormatter formatter = getFormatter(name);
+        return formatter == null ? null : formatter.format(millis);
+    }
+
+    /**
+     * Format the time with the default time format, or the standard time (HH:mm:ss) if it is not set
+     *
+     * @param millis the time in milliseconds
+     * @return the formatted time
+     */
+    @NotNull
+    public static String format(long millis) {
+        TimeFormatter formatter = formatters.get(DEFAULT_FORMAT);
+        return (formatter == null ? STANDARD_FORMATTER : formatter).format(millis);
     }
 }
@@ -0,0 +1,109 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.game.point;
+
+import me.hsgamer.hscore.common.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PointRankingTest {
+    @Test
+    void sortsByPointDescending() {
+        PointRanking<String> ranking = new PointRanking<>();
+        ranking.update("a", 5);
+        ranking.update("b", 10);
+        ranking.update("c", 1);
+        List<Pair<String, Integer>> top = ranking.getTop();
+        assertEquals(3, top.size());
+        assertEquals("b", top.get(0).getKey());
+        assertEquals("a", top.get(1).getKey());
+        assertEquals("c", top.get(2).getKey());
+        assertEquals(0, ranking.getRank("b"));
+        assertEquals(2, ranking.getRank("c"));
+    }
+
+    @Test
+    void earlierEntryWinsTie() {
+        PointRanking<String> ranking = new PointRanking<>();
+        ranking.update("a", 5);
+        ranking.update("b", 5);
+        assertEquals("a", ranking.get(0).map(Pair::getKey).orElse(null));
+        ranking.update("a", 4);
+        ranking.update("a", 5);
+        assertEquals("b", ranking.get(0).map(Pair::getKey).orElse(null));
+    }
+
+    @Test
+    void zeroPointIsNotRanked() {
+        PointRanking<String> ranking = new PointRanking<>();
+        ranking.update("a", 0);
+        assertEquals(0, ranking.size());
+        assertEquals(-1, ranking.getRank("a"));
+        ranking.update("a", 3);
+        ranking.update("a", 0);
+        assertEquals(0, ranking.size());
+        assertEquals(0, ranking.getPoint("a"));
+    }
+
+    @Test
+    void removeAndClear() {
+        PointRanking<String> ranking = new PointRanking<>();
+        ranking.update("a", 1);
+        ranking.update("b", 2);
+        ranking.remove("b");
+        assertEquals(1, ranking.size());
+        assertEquals(0, ranking.getRank("a"));
+        ranking.clear();
+        assertEquals(0, ranking.size());
+        assertFalse(ranking.get(0).isPresent());
+    }
+
+    @Test
+    void matchesSortedReference() {
+        Random random = new Random(42);
+        PointRanking<Integer> ranking = new PointRanking<>();
+        Map<Integer, Integer> points = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(200);
+            int point = random.nextInt(50);
+            ranking.update(key, point);
+            if (point > 0) {
+                points.put(key, point);
+            } else {
+                points.remove(key);
+            }
+        }
+        List<Pair<Integer, Integer>> top = ranking.getTop();
+        assertEquals(points.size(), top.size());
+        for (int i = 0; i < top.size(); i++) {
+            Pair<Integer, Integer> entry = top.get(i);
+            assertEquals(points.get(entry.getKey()), entry.getValue());
+            assertEquals(i, ranking.getRank(entry.getKey()));
+            assertEquals(entry.getKey(), ranking.get(i).map(Pair::getKey).orElse(null));
+            if (i > 0) {
+                assertTrue(top.get(i - 1).getValue() >= entry.getValue());
+            }
+        }
+        List<Pair<Integer, Integer>> firstTen = ranking.getTop(10);
+        assertEquals(10, firstTen.size());
+        for (int i = 0; i < firstTen.size(); i++) {
+            assertEquals(top.get(i).getKey(), firstTen.get(i).getKey());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.game.point;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PointTableTest {
+    @Test
+    void putKeepsValueWhenResizing() {
+        PointTable table = new PointTable(1);
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = UUID.randomUUID();
+            uuids.add(uuid);
+            table.put(uuid, i + 1);
+            assertEquals(i + 1, table.get(uuid));
+        }
+        assertEquals(1000, table.size());
+        for (int i = 0; i < uuids.size(); i++) {
+            assertEquals(i + 1, table.get(uuids.get(i)));
+        }
+    }
+
+    @Test
+    void addKeepsValueWhenResizing() {
+        PointTable table = new PointTable(1);
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            UUID uuid = UUID.randomUUID();
+            uuids.add(uuid);
+            assertEquals(i, table.add(uuid, i));
+        }
+        for (int i = 0; i < uuids.size(); i++) {
+            assertEquals(i * 2, table.add(uuids.get(i), i));
+        }
+    }
+
+    @Test
+    void equalUuidsShareEntry() {
+        PointTable table = new PointTable();
+        UUID uuid = UUID.randomUUID();
+        table.put(uuid, 5);
+        table.add(new UUID(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()), 3);
+        assertEquals(1, table.size());
+        assertEquals(8, table.get(uuid));
+    }
+
+    @Test
+    void missingEntryIsZero() {
+        PointTable table = new PointTable();
+        UUID uuid = UUID.randomUUID();
+        assertEquals(0, table.get(uuid));
+        assertFalse(table.contains(uuid));
+    }
+
+    @Test
+    void clearRemovesEntries() {
+        PointTable table = new PointTable();
+        UUID uuid = UUID.randomUUID();
+        table.put(uuid, 1);
+        table.clear();
+        assertTrue(table.isEmpty());
+        assertFalse(table.contains(uuid));
+        table.put(uuid, 2);
+        assertEquals(2, table.get(uuid));
+    }
+
+    @Test
+    void forEachVisitsAllEntries() {
+        PointTable table = new PointTable();
+        for (int i = 0; i < 50; i++) {
+            table.put(UUID.randomUUID(), 2);
+        }
+        int[] sum = {0};
+        table.forEach((mostBits, leastBits, point) -> sum[0] += point);
+        assertEquals(100, sum[0]);
+    }
+}
\ No newline at end of file
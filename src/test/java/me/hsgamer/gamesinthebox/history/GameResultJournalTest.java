@@ -0,0 +1,135 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.history;
+
+import me.hsgamer.hscore.common.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameResultJournalTest {
+    private static final Logger LOGGER = Logger.getLogger(GameResultJournalTest.class.getName());
+
+    private static GameResult createResult(String arena, long time, UUID... participants) {
+        List<UUID> list = Arrays.asList(participants);
+        return new GameResult("planner", arena, "type", time, time + 1000, list, Collections.singletonList(Pair.of(participants[0], 10)));
+    }
+
+    private static File createFolder() throws IOException {
+        return Files.createTempDirectory("journal").toFile();
+    }
+
+    private static void delete(File folder) {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    @Test
+    void resultsAreKeptAfterReopening() throws IOException {
+        File folder = createFolder();
+        try {
+            UUID first = UUID.randomUUID();
+            UUID second = UUID.randomUUID();
+            try (GameResultJournal journal = new GameResultJournal(folder, LOGGER, 1024, 4, 100)) {
+                journal.append(createResult("a", 1, first, second));
+                journal.append(createResult("b", 2, second));
+            }
+            try (GameResultJournal journal = new GameResultJournal(folder, LOGGER, 1024, 4, 100)) {
+                List<GameResult> results = journal.getLatestResults(10);
+                assertEquals(2, results.size());
+                assertEquals("b", results.get(0).getArena());
+                assertEquals("a", results.get(1).getArena());
+                assertEquals(2, results.get(1).getParticipants().size());
+                assertEquals(first, results.get(1).getTop().get(0).getKey());
+                assertEquals(10, (int) results.get(1).getTop().get(0).getValue());
+                assertEquals(1, journal.getPlayerResults(first, 10).size());
+                assertEquals(2, journal.getPlayerResults(second, 10).size());
+                assertEquals(1, journal.getArenaResults("planner", "a", 10).size());
+                assertEquals(2, journal.getArenaResults("PLANNER", null, 10).size());
+            }
+        } finally {
+            delete(folder);
+        }
+    }
+
+    @Test
+    void incompleteRecordIsDropped() throws IOException {
+        File folder = createFolder();
+        try {
+            try (GameResultJournal journal = new GameResultJournal(folder, LOGGER, 1024, 4, 100)) {
+                journal.append(createResult("a", 1, UUID.randomUUID()));
+                journal.append(createResult("b", 2, UUID.randomUUID()));
+            }
+            File[] files = folder.listFiles();
+            assertNotNull(files);
+            assertEquals(1, files.length);
+            try (RandomAccessFile file = new RandomAccessFile(files[0], "rw")) {
+                file.setLength(file.length() - 3);
+            }
+            try (GameResultJournal journal = new GameResultJournal(folder, LOGGER, 1024, 4, 100)) {
+                List<GameResult> results = journal.getLatestResults(10);
+                assertEquals(1, results.size());
+                assertEquals("a", results.get(0).getArena());
+                journal.append(createResult("c", 3, UUID.randomUUID()));
+            }
+            try (GameResultJournal journal = new GameResultJournal(folder, LOGGER, 1024, 4, 100)) {
+                List<GameResult> results = journal.getLatestResults(10);
+                assertEquals(2, results.size());
+                assertEquals("c", results.get(0).getArena());
+            }
+        } finally {
+            delete(folder);
+        }
+    }
+
+    @Test
+    void onlyLatestResultsAreKeptAcrossSegments() throws IOException {
+        File folder = createFolder();
+        try {
+            UUID uuid = UUID.randomUUID();
+            try (GameResultJournal journal = new GameResultJournal(folder, LOGGER, 1024, 2, 5)) {
+                for (int i = 0; i < 100; i++) {
+                    journal.append(createResult("arena" + i, i, uuid));
+                }
+                assertEquals(5, journal.getPlayerResults(uuid, 10).size());
+            }
+            try (GameResultJournal journal = new GameResultJournal(folder, LOGGER, 1024, 2, 5)) {
+                List<GameResult> results = journal.getLatestResults(10);
+                assertEquals(5, results.size());
+                for (int i = 0; i < results.size(); i++) {
+                    assertEquals("arena" + (99 - i), results.get(i).getArena());
+                }
+            }
+        } finally {
+            delete(folder);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.planner.template;
+
+import me.hsgamer.hscore.bukkit.utils.ColorUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VariableTemplateTest {
+    @Test
+    void variablesAreReplaced() {
+        VariableTemplate template = VariableTemplate.compile("Hello {name}, you have {point} points");
+        Map<String, String> values = new HashMap<>();
+        values.put("name", "Steve");
+        values.put("point", "10");
+        assertEquals("Hello Steve, you have 10 points", template.render(values::get));
+        assertEquals(2, template.getVariables().size());
+        assertFalse(template.isConstant());
+    }
+
+    @Test
+    void unknownVariableIsKept() {
+        VariableTemplate template = VariableTemplate.compile("{unknown} and {} and {{name}");
+        assertEquals("{unknown} and {} and {Steve", template.render(variable -> variable.equals("name") ? "Steve" : null));
+    }
+
+    @Test
+    void literalsAndValuesAreColorized() {
+        VariableTemplate template = VariableTemplate.compile("&a{name}: {value}");
+        Map<String, String> values = new HashMap<>();
+        values.put("name", "Steve");
+        values.put("value", "&c10");
+        assertEquals(ColorUtils.colorize("&a") + "Steve: " + ColorUtils.colorize("&c10"), template.render(values::get));
+    }
+
+    @Test
+    void constantIsColorized() {
+        VariableTemplate template = VariableTemplate.compile("&aNo variable");
+        assertTrue(template.isConstant());
+        assertEquals(ColorUtils.colorize("&aNo variable"), template.render(variable -> "unused"));
+    }
+}
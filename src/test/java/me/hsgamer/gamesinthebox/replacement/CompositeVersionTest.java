@@ -0,0 +1,44 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.replacement;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompositeVersionTest {
+    @Test
+    void sameInputsKeepVersion() {
+        CompositeVersion version = new CompositeVersion();
+        long first = version.get(1, 2);
+        assertEquals(first, version.get(1, 2));
+        assertTrue(first != VersionedStringReplacer.UNVERSIONED);
+    }
+
+    @Test
+    void changedInputsNeverReuseVersion() {
+        CompositeVersion version = new CompositeVersion();
+        Set<Long> seen = new HashSet<>();
+        long[][] inputs = {{1, 2}, {2, 1}, {0, 5}, {1, 2}, {5, 0}, {2, 1}};
+        for (long[] input : inputs) {
+            assertTrue(seen.add(version.get(input[0], input[1])));
+        }
+        assertTrue(seen.add(new CompositeVersion().get(1, 2)));
+    }
+}
\ No newline at end of file
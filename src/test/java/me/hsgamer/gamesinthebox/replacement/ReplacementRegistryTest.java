@@ -0,0 +1,58 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.replacement;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplacementRegistryTest {
+    @Test
+    void queriesAreResolvedByNameAndPrefix() {
+        ReplacementRegistry registry = new ReplacementRegistry()
+                .register("name", () -> "arena")
+                .registerIndex("top_", index -> "top" + index)
+                .registerPrefix("top_name_", (argument, uuid) -> "name:" + argument);
+        assertEquals("arena", registry.replace("NAME"));
+        assertEquals("top0", registry.replace("top_1"));
+        assertEquals("name:1", registry.replace("top_name_1"));
+        assertNull(registry.replace("top_x"));
+        assertNull(registry.replace("unknown"));
+        assertFalse(registry.contains("unknown"));
+    }
+
+    @Test
+    void onlyDeclaredQueriesAreShared() {
+        UUID uuid = UUID.randomUUID();
+        ReplacementRegistry registry = new ReplacementRegistry()
+                .register("name", () -> "arena")
+                .registerIndex("top_", index -> "top" + index)
+                .registerPlayer("point", player -> "10")
+                .register("mixed", (argument, player) -> player == null ? "all" : player.toString())
+                .registerPrefix("format_", String::toLowerCase, (format, player) -> format, null, format -> !format.equals("player"));
+        assertTrue(registry.isShared("name"));
+        assertTrue(registry.isShared("top_1"));
+        assertFalse(registry.isShared("point"));
+        assertFalse(registry.isShared("mixed"));
+        assertEquals("all", registry.replace("mixed"));
+        assertEquals(uuid.toString(), registry.replace("mixed", uuid));
+        assertTrue(registry.isShared("format_short"));
+        assertFalse(registry.isShared("format_player"));
+        assertFalse(registry.isShared("unknown"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+/*
+   Copyright 2023-2023 Huynh Tien
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package me.hsgamer.gamesinthebox.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeFormatterTest {
+    @Test
+    void fieldsArePadded() {
+        TimeFormatter formatter = TimeFormatter.compile("HH:mm:ss");
+        assertEquals("01:01:05", formatter.format(3665_000L));
+        assertEquals("00:00:00", formatter.format(-1000L));
+    }
+
+    @Test
+    void largestFieldTakesRemainingTime() {
+        assertEquals("90:00", TimeFormatter.compile("mm:ss").format(5400_000L));
+        assertEquals("2d 1", TimeFormatter.compile("d'd' H").format(176400_000L));
+    }
+
+    @Test
+    void quotedTextIsKept() {
+        assertEquals("5s left", TimeFormatter.compile("s's left'").format(5000L));
+        assertEquals("it's 5", TimeFormatter.compile("'it''''s 's").format(5000L));
+        assertEquals("'5'", TimeFormatter.compile("''s''").format(5000L));
+    }
+
+    @Test
+    void zeroOptionalIsSkipped() {
+        TimeFormatter formatter = TimeFormatter.compile("[H'h '][m'm ']s's'");
+        assertEquals("1m 5s", formatter.format(65_000L));
+        assertEquals("1h 5s", formatter.format(3605_000L));
+        assertEquals("5s", formatter.format(5000L));
+        assertEquals("[x]", TimeFormatter.compile("'['[x]']'").format(0L));
+    }
+
+    @Test
+    void nestedOptionalIsSkippedByItsOwnFields() {
+        TimeFormatter formatter = TimeFormatter.compile("[H'h'[' 'm'm']] s's'");
+        assertEquals("1h 5s", formatter.format(3605_000L));
+        assertEquals("1h 1m 5s", formatter.format(3665_000L));
+        assertEquals(" 5s", formatter.format(5000L));
+    }
+
+    @Test
+    void invalidPatternIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TimeFormatter.compile("[m:ss"));
+        assertThrows(IllegalArgumentException.class, () -> TimeFormatter.compile("[m]]:ss"));
+        assertThrows(IllegalArgumentException.class, () -> TimeFormatter.compile("'m:ss"));
+    }
+
+    @Test
+    void sameSecondIsCached() {
+        TimeFormatter formatter = TimeFormatter.compile("m:ss");
+        String first = formatter.format(65_000L);
+        assertSame(first, formatter.format(65_999L));
+        assertEquals("1:06", formatter.format(66_000L));
+        assertNotSame(first, formatter.format(65_000L + 16_000L));
+        assertEquals("1:05", formatter.format(65_000L));
+    }
+}